@@ -0,0 +1,138 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.CertificateFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.objectweb.asm.Opcodes;
+
+import jdk.security.jarsigner.JarSigner;
+import net.sf.jstuff.core.collection.Enumerations;
+
+/**
+ * Inputs shared by the benchmarks.
+ *
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+abstract class BenchmarkSupport {
+
+   /**
+    * Analyzer counting the reported class references.
+    */
+   static final class CountingAnalyzer extends AbstractClassAnalyzer {
+      int classReferences;
+
+      CountingAnalyzer() {
+         super(Opcodes.ASM9);
+      }
+
+      @Override
+      protected void onClassName(final String nameOfReferencedClass) {
+         // not relevant
+      }
+
+      @Override
+      protected void onClassReference(final String nameOfReferencedClass) {
+         classReferences++;
+      }
+   }
+
+   /**
+    * Creates a JAR with the given number of class file entries distributed over packages of 50 classes each. The entries only contain
+    * their name since the benchmarked code only reads the central directory.
+    */
+   static Path createJar(final Path jarFile, final int classCount) throws IOException {
+      try (var jar = new JarOutputStream(Files.newOutputStream(jarFile))) {
+         jar.putNextEntry(new ZipEntry(JarFile.MANIFEST_NAME));
+         jar.write("Manifest-Version: 1.0\r\n".getBytes(StandardCharsets.UTF_8));
+         jar.closeEntry();
+         for (int i = 0; i < classCount; i++) {
+            final String entry = "com/acme/pkg" + i / 50 + "/Class" + i + (i % 10 == 0 ? "$1" : "") + ".class";
+            jar.putNextEntry(new ZipEntry(entry));
+            jar.write(entry.getBytes(StandardCharsets.UTF_8));
+            jar.closeEntry();
+         }
+      }
+      return jarFile;
+   }
+
+   /**
+    * @return the JAR files of the class path of the benchmark JVM, i.e. the dependencies of this plugin
+    */
+   static List<File> getClassPathJars() {
+      final var jars = new ArrayList<File>();
+      for (final String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+         if (entry.endsWith(".jar")) {
+            jars.add(new File(entry));
+         }
+      }
+      return jars;
+   }
+
+   /**
+    * @return the byte code of all classes of the JAR file containing the given class
+    */
+   static List<byte[]> loadClassesOfJar(final Class<?> clazz) throws Exception {
+      final var classes = new ArrayList<byte[]>();
+      try (var jar = new JarFile(new File(clazz.getProtectionDomain().getCodeSource().getLocation().toURI()))) {
+         for (final JarEntry jarEntry : Enumerations.toIterable(jar.entries())) {
+            if (jarEntry.getName().endsWith(".class") && !jarEntry.getName().contains("-info")) {
+               try (var in = jar.getInputStream(jarEntry)) {
+                  classes.add(in.readAllBytes());
+               }
+            }
+         }
+      }
+      return classes;
+   }
+
+   /**
+    * Signs the given JAR with a key pair generated by <code>keytool</code>.
+    */
+   static Path signJar(final Path unsignedJar, final Path signedJar) throws Exception {
+      final Path keyStoreFile = signedJar.resolveSibling("keystore.p12");
+      final char[] password = "changeit".toCharArray();
+      final Process keytool = new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "keytool").toString(), //
+         "-genkeypair", "-alias", "bench", "-keyalg", "RSA", "-keysize", "2048", "-dname", "CN=bench", "-validity", "1", //
+         "-storetype", "PKCS12", "-keystore", keyStoreFile.toString(), "-storepass", "changeit", "-keypass", "changeit") //
+            .redirectErrorStream(true) //
+            .start();
+      keytool.getInputStream().transferTo(OutputStream.nullOutputStream());
+      if (keytool.waitFor() != 0)
+         throw new IOException("Generating the key pair failed.");
+
+      final var keyStore = KeyStore.getInstance("PKCS12");
+      try (var in = Files.newInputStream(keyStoreFile)) {
+         keyStore.load(in, password);
+      }
+      final var signer = new JarSigner.Builder( //
+         (PrivateKey) keyStore.getKey("bench", password), //
+         CertificateFactory.getInstance("X.509").generateCertPath(Arrays.asList(keyStore.getCertificateChain("bench"))) //
+      ).signerName("BENCH").build();
+
+      try (var unsigned = new ZipFile(unsignedJar.toFile());
+           OutputStream out = Files.newOutputStream(signedJar)) {
+         signer.sign(unsigned, out);
+      }
+      return signedJar;
+   }
+}
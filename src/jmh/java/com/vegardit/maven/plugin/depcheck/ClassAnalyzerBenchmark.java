@@ -0,0 +1,79 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.objectweb.asm.ClassReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sf.jstuff.core.Strings;
+
+/**
+ * Measures the class file parsing throughput of {@link AbstractClassAnalyzer} per {@link ClassAnalyzerEngine}. One operation parses all
+ * classes of the ASM and jstuff-core JARs.
+ *
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ClassAnalyzerBenchmark {
+
+   @Param({"ASM", "CONSTANT_POOL"})
+   public ClassAnalyzerEngine engine;
+
+   private List<byte[]> classes;
+   private BenchmarkSupport.CountingAnalyzer analyzer;
+
+   @Setup
+   public void setup() throws Exception {
+      classes = new ArrayList<>();
+      classes.addAll(BenchmarkSupport.loadClassesOfJar(ClassReader.class));
+      classes.addAll(BenchmarkSupport.loadClassesOfJar(Strings.class));
+      analyzer = new BenchmarkSupport.CountingAnalyzer();
+   }
+
+   /**
+    * Parses the classes with a fresh analyzer per class file.
+    */
+   @Benchmark
+   public int scanWithFreshAnalyzers() {
+      int classReferences = 0;
+      for (final byte[] classByteCode : classes) {
+         final var freshAnalyzer = new BenchmarkSupport.CountingAnalyzer();
+         freshAnalyzer.scan(classByteCode, engine);
+         classReferences += freshAnalyzer.classReferences;
+      }
+      return classReferences;
+   }
+
+   /**
+    * Parses the classes with one analyzer, as done for the class files of a batch.
+    */
+   @Benchmark
+   public int scanWithReusedAnalyzer() {
+      analyzer.classReferences = 0;
+      for (final byte[] classByteCode : classes) {
+         analyzer.scan(classByteCode, engine);
+      }
+      return analyzer.classReferences;
+   }
+}
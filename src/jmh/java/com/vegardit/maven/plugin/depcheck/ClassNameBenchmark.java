@@ -0,0 +1,105 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.sf.jstuff.core.Strings;
+
+/**
+ * Measures the normalization of class names, i.e. interning internal class names, deriving their packages and converting them to fully
+ * qualified class names. The names are the classes referenced by the ASM and jstuff-core JARs.
+ *
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ClassNameBenchmark {
+
+   private List<String> classNames;
+   private SymbolTable filledSymbols;
+
+   @Setup
+   public void setup() throws Exception {
+      final Set<String> referencedClasses = new HashSet<>();
+      final var analyzer = new AbstractClassAnalyzer(Opcodes.ASM9) {
+         @Override
+         protected void onClassName(final String nameOfReferencedClass) {
+            // not relevant
+         }
+
+         @Override
+         protected void onClassReference(final String nameOfReferencedClass) {
+            referencedClasses.add(nameOfReferencedClass);
+         }
+      };
+      for (final Class<?> classOfJar : new Class<?>[] {ClassReader.class, Strings.class}) {
+         for (final byte[] classByteCode : BenchmarkSupport.loadClassesOfJar(classOfJar)) {
+            analyzer.scan(classByteCode);
+         }
+      }
+
+      // copy the names so that the benchmarks do not operate on strings already interned by the analyzer
+      classNames = new ArrayList<>(referencedClasses.size());
+      for (final String className : referencedClasses) {
+         classNames.add(new String(className.toCharArray()));
+      }
+
+      filledSymbols = new SymbolTable();
+      classNames.forEach(filledSymbols::intern);
+   }
+
+   @Benchmark
+   public Set<String> getPackages() {
+      return ArtifactClasses.getPackages(classNames);
+   }
+
+   @Benchmark
+   public int lookupInternedNames() {
+      int idSum = 0;
+      for (final String className : classNames) {
+         idSum += filledSymbols.idOf(className);
+      }
+      return idSum;
+   }
+
+   @Benchmark
+   public SymbolTable internNewNames() {
+      final var symbols = new SymbolTable();
+      for (final String className : classNames) {
+         symbols.intern(className);
+      }
+      return symbols;
+   }
+
+   @Benchmark
+   public void toClassName(final Blackhole blackhole) {
+      for (final String className : classNames) {
+         blackhole.consume(AbstractClassAnalyzer.toClassName(className));
+      }
+   }
+}
@@ -0,0 +1,121 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sf.jstuff.core.collection.Enumerations;
+
+/**
+ * Measures the enumeration of the class entries of JAR files by {@link JarClassNamesReader} compared to {@link JarFile}, which was used
+ * before.
+ *
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JarClassNamesReaderBenchmark {
+
+   public enum JarKind {
+      /**
+       * 100 class entries
+       */
+      SMALL,
+
+      /**
+       * 50,000 class entries
+       */
+      HUGE,
+
+      /**
+       * 2,000 class entries plus the signature files
+       */
+      SIGNED
+   }
+
+   @Param({"SMALL", "HUGE", "SIGNED"})
+   public JarKind jarKind;
+
+   private File jarFile;
+   private Path tempDir;
+
+   @Setup
+   public void setup() throws Exception {
+      tempDir = Files.createTempDirectory("depcheck-benchmark");
+      switch (jarKind) {
+         case SMALL:
+            jarFile = BenchmarkSupport.createJar(tempDir.resolve("small.jar"), 100).toFile();
+            break;
+         case HUGE:
+            jarFile = BenchmarkSupport.createJar(tempDir.resolve("huge.jar"), 50_000).toFile();
+            break;
+         case SIGNED:
+            jarFile = BenchmarkSupport.signJar(BenchmarkSupport.createJar(tempDir.resolve("unsigned.jar"), 2_000), tempDir.resolve(
+               "signed.jar")).toFile();
+            break;
+         default:
+            throw new IllegalStateException("Unsupported JAR kind: " + jarKind);
+      }
+   }
+
+   @TearDown
+   public void tearDown() throws IOException {
+      try (Stream<Path> files = Files.walk(tempDir)) {
+         files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+      }
+   }
+
+   /**
+    * Baseline: enumerates the entries with {@link JarFile} which also parses the manifest and verifies signed JARs.
+    */
+   @Benchmark
+   public int readClassNamesWithJarFile() throws IOException {
+      int classCount = 0;
+      try (var jar = new JarFile(jarFile)) {
+         for (final JarEntry jarEntry : Enumerations.toIterable(jar.entries())) {
+            if (!jarEntry.isDirectory() && jarEntry.getName().endsWith(".class")) {
+               classCount++;
+            }
+         }
+      }
+      return classCount;
+   }
+
+   @Benchmark
+   public Set<String> readClassNames() throws IOException {
+      return JarClassNamesReader.readClassNames(jarFile);
+   }
+
+   @Benchmark
+   public ArtifactClasses readPackages() throws IOException {
+      return JarClassNamesReader.readPackages(jarFile);
+   }
+}
@@ -0,0 +1,132 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sf.jstuff.core.Strings;
+
+/**
+ * Measures the phase of {@link DepsAnalyzer#scan(boolean, boolean)} attributing the classes referenced by a project to the dependencies
+ * declaring them, i.e. one {@link DepsAnalyzer#getDeclaredClasses(SymbolTable, BitSet, Set)} call per dependency.
+ *
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MatchingBenchmark {
+
+   public enum ClassPath {
+      /**
+       * 200 dependencies declaring 500 classes each and a project referencing 5,000 classes of which every second one is declared by
+       * a dependency
+       */
+      SYNTHETIC,
+
+      /**
+       * the JARs of the class path of the benchmark JVM and a project referencing the classes referenced by the ASM and jstuff-core
+       * JARs
+       */
+      REAL
+   }
+
+   @Param({"SYNTHETIC", "REAL"})
+   public ClassPath classPath;
+
+   private List<Set<String>> classesDeclaredByDeps;
+   private BitSet referencedClasses;
+   private SymbolTable symbols;
+
+   private final AbstractClassAnalyzer referencingAnalyzer = new AbstractClassAnalyzer(Opcodes.ASM9) {
+      @Override
+      protected void onClassName(final String nameOfReferencedClass) {
+         // not relevant
+      }
+
+      @Override
+      protected void onClassReference(final String nameOfReferencedClass) {
+         referencedClasses.set(symbols.intern(nameOfReferencedClass));
+      }
+   };
+
+   @Setup
+   public void setup() throws Exception {
+      symbols = new SymbolTable();
+      referencedClasses = new BitSet();
+      classesDeclaredByDeps = new ArrayList<>();
+
+      switch (classPath) {
+         case SYNTHETIC:
+            for (int dep = 0; dep < 200; dep++) {
+               final var declaredClasses = new HashSet<String>();
+               for (int i = 0; i < 500; i++) {
+                  declaredClasses.add("com/acme/dep" + dep + "/Class" + i);
+               }
+               classesDeclaredByDeps.add(declaredClasses);
+            }
+            for (int i = 0; i < 5_000; i++) {
+               final int dep = i % 200;
+               final int clazz = i / 200;
+               referencedClasses.set(symbols.intern(i % 2 == 0 //
+                  ? "com/acme/dep" + dep + "/Class" + clazz
+                  : "org/other/dep" + dep + "/Class" + clazz));
+            }
+            break;
+         case REAL:
+            for (final File jar : BenchmarkSupport.getClassPathJars()) {
+               classesDeclaredByDeps.add(JarClassNamesReader.readClassNames(jar));
+            }
+            for (final Class<?> classOfJar : new Class<?>[] {ClassReader.class, Strings.class}) {
+               for (final byte[] classByteCode : BenchmarkSupport.loadClassesOfJar(classOfJar)) {
+                  referencingAnalyzer.scan(classByteCode);
+               }
+            }
+            break;
+         default:
+            throw new IllegalStateException("Unsupported class path: " + classPath);
+      }
+   }
+
+   /**
+    * @return the number of dependencies declaring any of the referenced classes
+    */
+   @Benchmark
+   public int match() {
+      final var unattributedClasses = (BitSet) referencedClasses.clone();
+      int usedDeps = 0;
+      for (int i = 0; i < classesDeclaredByDeps.size() && !unattributedClasses.isEmpty(); i++) {
+         final BitSet usedClasses = DepsAnalyzer.getDeclaredClasses(symbols, unattributedClasses, classesDeclaredByDeps.get(i));
+         if (!usedClasses.isEmpty()) {
+            usedDeps++;
+            unattributedClasses.andNot(usedClasses);
+         }
+      }
+      return usedDeps;
+   }
+}
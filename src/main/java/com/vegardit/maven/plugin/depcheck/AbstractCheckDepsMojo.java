@@ -0,0 +1,181 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import static net.sf.jstuff.core.Strings.NEW_LINE;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+import com.vegardit.maven.plugin.depcheck.DepsAnalyzer.ScanResult;
+import com.vegardit.maven.util.MavenUtils;
+
+/**
+ * Base class of the goals checking the dependencies of projects and reporting violations, i.e. potentially unused direct dependencies
+ * and directly used transitive dependencies.
+ *
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+public abstract class AbstractCheckDepsMojo extends AbstractDepsMojo {
+
+   /**
+    * Checks for potentially unused direct dependencies.
+    */
+   @Parameter(property = CheckDepsMojo.MAVEN_GOAL + ".checkForUnusedDependencies", defaultValue = "true")
+   boolean checkForUnusedDependencies;
+
+   /**
+    * Checks for classes used by this project's code that are provided by transitive
+    * instead of direct dependencies.
+    */
+   @Parameter(property = CheckDepsMojo.MAVEN_GOAL + ".checkForUsedTransitiveDependencies", defaultValue = "true")
+   boolean checkForUsedTransitiveDependencies;
+
+   /**
+    * Only relevant for multi-module projects. Specifies if the Maven build shall be aborted
+    * when the first module with violations is found or if the build should fail after all
+    * modules were scanned. If enabled, all analyses of the goal execution stop as soon as
+    * one of them finds a violation failing the build.
+    */
+   @Parameter(property = CheckDepsMojo.MAVEN_GOAL + ".failFast", defaultValue = "false")
+   boolean failFast;
+
+   /**
+    * Specifies if the Maven build should abort in case the project declares potentially unused
+    * Maven dependencies.
+    */
+   @Parameter(property = CheckDepsMojo.MAVEN_GOAL + ".failIfUnusedDependencies", defaultValue = "false")
+   boolean failIfUnusedDependencies;
+
+   /**
+    * Specifies if the Maven build should abort in case the project directly uses classes
+    * of transitive dependencies.
+    */
+   @Parameter(property = CheckDepsMojo.MAVEN_GOAL + ".failIfUsedTransitiveDependencies", defaultValue = "false")
+   boolean failIfUsedTransitiveDependencies;
+
+   /**
+    * Specifies if the analysis shall be skipped if neither the project's class files, nor its dependencies, nor the configuration
+    * changed since the last analysis. In that case the result of the last analysis stored in the build directory is reused.
+    */
+   @Parameter(property = CheckDepsMojo.MAVEN_GOAL + ".upToDateCheck", defaultValue = "true")
+   boolean upToDateCheck;
+
+   void assertNoViolations(final List<DepsAnalyzer.ScanResult> results) throws MojoExecutionException {
+      final boolean hasUnusedDirectDeps = results.stream().anyMatch(ScanResult::hasUnusedDirectDependencies);
+      final boolean hasUsedTransDeps = results.stream().anyMatch(ScanResult::hasDirectlyUsedTransitiveDependencies);
+      if (!hasUnusedDirectDeps && !hasUsedTransDeps) {
+         log.info(DIVIDER);
+         if (checkForUnusedDependencies) {
+            log.info("No unused direct dependencies found.");
+         } else if (checkForUsedTransitiveDependencies) {
+            log.info("No direct usage of transitive dependencies found.");
+         }
+         return;
+      }
+
+      final var sb = new StringBuilder();
+
+      sb.append("The following violations have been detected:").append(NEW_LINE);
+      for (final DepsAnalyzer.ScanResult result : results) {
+         if (result.hasUnusedDirectDependencies() || result.hasDirectlyUsedTransitiveDependencies()) {
+            sb.append(NEW_LINE).append("  For ").append(MavenUtils.toString(result.project)).append(NEW_LINE);
+            for (final Artifact unusedDep : result.unusedDirectDependencies) {
+               sb.append("  |-> unused direct dependency: ").append(unusedDep).append(NEW_LINE);
+            }
+            for (final Entry<Artifact, Set<String>> entry : result.usedClassesOfTransitiveDependencies.entrySet()) {
+               sb.append("  |-> used transitive dependency: ").append(entry.getKey()) //
+                  .append("   (using e.g. ").append(AbstractClassAnalyzer.toClassName(entry.getValue().iterator().next())).append(")")
+                  .append(NEW_LINE);
+            }
+         }
+      }
+
+      if (hasUnusedDirectDeps && failIfUnusedDependencies || hasUsedTransDeps && failIfUsedTransitiveDependencies)
+         throw new MojoExecutionException(NEW_LINE + sb.toString());
+
+      log.warn(sb.toString());
+   }
+
+   /**
+    * @return the token shared by all analyses of this goal execution or null if {@link #failFast} is disabled
+    */
+   CancellationToken getCancellationToken() {
+      if (!failFast)
+         return null;
+
+      // the first reactor project is shared by the executions of this goal for all projects of the build session
+      final MavenProject sessionProject = mvnReactorProjects.get(0);
+      final String contextKey = CancellationToken.class.getName() + ":" + getExecutionKey();
+      synchronized (sessionProject) {
+         final Object token = sessionProject.getContextValue(contextKey);
+         if (token instanceof CancellationToken)
+            return (CancellationToken) token;
+
+         final var newToken = new CancellationToken(failIfUnusedDependencies, failIfUsedTransitiveDependencies);
+         sessionProject.setContextValue(contextKey, newToken);
+         return newToken;
+      }
+   }
+
+   Path getScanResultFile() {
+      return getScanResultFile(mvnCurrentProject);
+   }
+
+   Path getScanResultFile(final MavenProject project) {
+      return Paths.get(project.getBuild().getDirectory(), "depcheck-maven-plugin", CheckDepsMojo.MAVEN_GOAL + ".result");
+   }
+
+   /**
+    * @return the stored result of the last analysis of the analyzer's project if {@link #upToDateCheck} is enabled and no input changed
+    *         since then, otherwise the result of a new analysis
+    */
+   DepsAnalyzer.ScanResult scanIfChanged(final DepsAnalyzer analyzer) throws MojoExecutionException {
+      final CancellationToken cancellation = getCancellationToken();
+      if (cancellation != null) {
+         cancellation.throwIfCancelled();
+      }
+
+      if (!upToDateCheck) {
+         final DepsAnalyzer.ScanResult result = analyzer.scan(checkForUnusedDependencies, checkForUsedTransitiveDependencies);
+         recordMetrics(analyzer);
+         return result;
+      }
+
+      final MavenProject project = analyzer.getProject();
+      final String fingerprint = analyzer.computeInputFingerprint(checkForUnusedDependencies, checkForUsedTransitiveDependencies);
+      final var store = new ScanResultStore(getScanResultFile(project), log);
+      final var dependencies = new HashSet<Artifact>(getDirectDependencies(project));
+      dependencies.addAll(project.getArtifacts());
+      DepsAnalyzer.ScanResult result = store.load(fingerprint, project, dependencies);
+      if (result != null) {
+         log.info("Classes and dependencies of " + MavenUtils.toString(project) + " unchanged since last analysis. Reusing its result.");
+         if (cancellation != null && (cancellation.cancelOnUnusedDependencies && result.hasUnusedDirectDependencies()
+               || cancellation.cancelOnUsedTransitiveDependencies && result.hasDirectlyUsedTransitiveDependencies())) {
+            cancellation.cancel(MavenUtils.toString(project) + " has dependency violations");
+         }
+         recordMetrics(analyzer);
+         return result;
+      }
+
+      result = analyzer.scan(checkForUnusedDependencies, checkForUsedTransitiveDependencies);
+      recordMetrics(analyzer);
+
+      // a partial result of an analysis stopped by the fail-fast mode must not be reused by analyses without fail-fast mode
+      if (!result.isPartial) {
+         store.save(fingerprint, result);
+      }
+      return result;
+   }
+}
@@ -6,6 +6,11 @@
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.objectweb.asm.AnnotationVisitor;
 import org.objectweb.asm.ClassReader;
@@ -19,18 +24,112 @@
 import org.objectweb.asm.signature.SignatureReader;
 import org.objectweb.asm.signature.SignatureVisitor;
 
-import net.sf.jstuff.core.Strings;
-
 /**
  * Analyzes the byte code of the given class files for usage of other classes.
  *
+ * <p>
+ * An instance can be reused to scan any number of class files - but not concurrently. Reusing an instance avoids re-creating the
+ * visitors and allows the memoized results of previously parsed descriptors to be used.
+ * </p>
+ *
  * @author Sebastian Thomschke, Vegard IT GmbH
  */
 public abstract class AbstractClassAnalyzer {
 
+   private static final int CONSTANT_UTF8 = 1;
+   private static final int CONSTANT_CLASS = 7;
+   private static final int CONSTANT_STRING = 8;
+   private static final int CONSTANT_MODULE = 19;
+   private static final int CONSTANT_PACKAGE = 20;
+
+   /**
+    * marker for UTF8 constants that are no valid descriptor or signature
+    */
+   private static final String[] INVALID_DESCRIPTOR = {};
+
+   private static final int MAX_MEMOIZED_DESCRIPTORS = 4096;
+
+   /**
+    * @return a map evicting the least recently used entries once it holds more than the given number of entries
+    */
+   private static <K, V> Map<K, V> newBoundedMap(final int maxEntries) {
+      return new LinkedHashMap<>(maxEntries / 2, 0.75f, true) {
+         private static final long serialVersionUID = 1L;
+
+         @Override
+         protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+            return size() > maxEntries;
+         }
+      };
+   }
+
+   /**
+    * Decodes the modified UTF-8 constant at the given offset if it starts like a type descriptor or a signature.
+    *
+    * @return null if the constant cannot be a descriptor or signature containing class references
+    */
+   private static String readDescriptorCandidate(final byte[] bytes, final int offset, final char[] charBuffer) {
+      final int length = (bytes[offset] & 0xFF) << 8 | bytes[offset + 1] & 0xFF;
+      if (length < 3)
+         return null;
+
+      final int start = offset + 2;
+      final int end = start + length;
+      switch (bytes[start]) {
+         case '(': // method descriptor or signature
+         case '<': // generic class or method signature
+         case '[': // array descriptor
+            break;
+         case 'L': // class descriptor or generic class signature
+            if (bytes[end - 1] != ';' && bytes[end - 1] != '>')
+               return null;
+            break;
+         default:
+            return null;
+      }
+
+      int charCount = 0;
+      for (int i = start; i < end;) {
+         final int b = bytes[i++] & 0xFF;
+         if ((b & 0x80) == 0) {
+            charBuffer[charCount++] = (char) b;
+         } else if ((b & 0xE0) == 0xC0) {
+            charBuffer[charCount++] = (char) (((b & 0x1F) << 6) + (bytes[i++] & 0x3F));
+         } else {
+            charBuffer[charCount++] = (char) (((b & 0xF) << 12) + ((bytes[i++] & 0x3F) << 6) + (bytes[i++] & 0x3F));
+         }
+      }
+      final String value = new String(charBuffer, 0, charCount);
+      if ("<init>".equals(value) || "<clinit>".equals(value))
+         return null;
+      return value;
+   }
+
+   /**
+    * Converts the given internal class name to the fully qualified class name as returned by {@link Class#getName()}, e.g.
+    * <code>java/util/Map$Entry</code> to <code>java.util.Map$Entry</code>. Class names are only converted for display purposes.
+    */
+   static String toClassName(final String internalClassName) {
+      return internalClassName.replace('/', '.');
+   }
+
    protected final int asmAPI;
 
+   private char[] charBuffer = new char[256];
    protected ClassVisitor classVisitor;
+
+   /**
+    * key = descriptor or signature, value = internal names of the referenced classes or {@link #INVALID_DESCRIPTOR}
+    */
+   private final Map<String, String[]> memoizedDescriptors = newBoundedMap(MAX_MEMOIZED_DESCRIPTORS);
+
+   private final BitSet nonDescriptorEntries = new BitSet();
+
+   /**
+    * collects the class names reported by {@link #signatureVisitor} while a descriptor is parsed
+    */
+   private final List<String> parsedClassNames = new ArrayList<>();
+
    protected final SignatureVisitor signatureVisitor;
 
    /**
@@ -42,7 +141,7 @@ protected AbstractClassAnalyzer(final int asmAPI) {
       signatureVisitor = new SignatureVisitor(asmAPI) {
          @Override
          public void visitClassType(final String internalClassName) {
-            reportClassReference(internalClassName);
+            parsedClassNames.add(internalClassName);
          }
       };
       initClassVisitor();
@@ -215,15 +314,52 @@ public AnnotationVisitor visitTypeAnnotation(final int typeRef, final TypePath t
       };
    }
 
+   /**
+    * Called with the internal name of the scanned class, e.g. <code>com/acme/Outer$Inner</code>.
+    */
    protected abstract void onClassName(String nameOfReferencedClass);
 
    /**
-    * Called when a reference to another class was found.
+    * Called with the internal name of the referenced class, e.g. <code>java/util/Map$Entry</code>, when a reference to another class
+    * was found.
     */
    protected abstract void onClassReference(String nameOfReferencedClass);
 
+   /**
+    * Parses the given UTF8 constant as signature and only reports the contained class references if it is valid.
+    */
+   private void parseDescriptorCandidate(final String descriptor) {
+      final String[] internalClassNames = parseDescriptorMemoized(descriptor, true);
+      for (final String internalClassName : internalClassNames) {
+         reportClassReference(internalClassName);
+      }
+   }
+
+   /**
+    * @param isCandidate if true, the given string may not be a descriptor or signature at all, e.g. an annotation string value
+    * @return the internal names of the classes referenced by the given descriptor or signature
+    */
+   private String[] parseDescriptorMemoized(final String descriptor, final boolean isCandidate) {
+      String[] internalClassNames = memoizedDescriptors.get(descriptor);
+      if (internalClassNames == null) {
+         parsedClassNames.clear();
+         try {
+            new SignatureReader(descriptor).accept(signatureVisitor);
+            internalClassNames = parsedClassNames.isEmpty() ? INVALID_DESCRIPTOR : parsedClassNames.toArray(String[]::new);
+         } catch (final RuntimeException ex) {
+            if (!isCandidate)
+               throw ex;
+            internalClassNames = INVALID_DESCRIPTOR; // not a descriptor or signature
+         }
+         memoizedDescriptors.put(descriptor, internalClassNames);
+      }
+      return internalClassNames;
+   }
+
    private void parseSignature(final String signature) {
-      new SignatureReader(signature).accept(signatureVisitor);
+      for (final String internalClassName : parseDescriptorMemoized(signature, false)) {
+         reportClassReference(internalClassName);
+      }
    }
 
    private void reportClassReference(final String internalClassName) {
@@ -236,12 +372,88 @@ private void reportClassReference(final String internalClassName) {
          return;
       }
 
-      onClassReference(Strings.replaceChars(internalClassName, "/\\", "."));
+      onClassReference(internalClassName);
    }
 
-   public void scan(final InputStream classByteCode) throws IOException {
+   /**
+    * Scans the given byte code. The array is neither copied nor modified.
+    */
+   public void scan(final byte[] classByteCode) {
       final var cr = new ClassReader(classByteCode);
-      onClassName(Strings.replaceChars(cr.getClassName(), "/\\", "."));
+      onClassName(cr.getClassName());
       cr.accept(classVisitor, ClassReader.SKIP_FRAMES);
    }
+
+   /**
+    * Scans the given byte code using the given engine. The array is neither copied nor modified.
+    */
+   public void scan(final byte[] classByteCode, final ClassAnalyzerEngine engine) {
+      if (engine == ClassAnalyzerEngine.CONSTANT_POOL) {
+         scanConstantPool(classByteCode);
+      } else {
+         scan(classByteCode);
+      }
+   }
+
+   public void scan(final InputStream classByteCode) throws IOException {
+      scan(classByteCode.readAllBytes());
+   }
+
+   /**
+    * Scans the given byte code using the given engine.
+    */
+   public void scan(final InputStream classByteCode, final ClassAnalyzerEngine engine) throws IOException {
+      scan(classByteCode.readAllBytes(), engine);
+   }
+
+   /**
+    * Extracts the class references solely from the constant pool without visiting fields, methods and method bodies. Class
+    * references are taken from all CONSTANT_Class entries and from all CONSTANT_Utf8 entries holding a parseable type descriptor
+    * or signature, e.g. the descriptors referenced by CONSTANT_NameAndType entries or by field, method and local variable
+    * declarations.
+    *
+    * @see ClassAnalyzerEngine#CONSTANT_POOL
+    */
+   public void scanConstantPool(final byte[] bytes) {
+      final var cr = new ClassReader(bytes);
+      onClassName(cr.getClassName());
+
+      if (charBuffer.length < cr.getMaxStringLength()) {
+         charBuffer = new char[cr.getMaxStringLength()];
+      }
+      final char[] charBuffer = this.charBuffer;
+      final int itemCount = cr.getItemCount();
+
+      // UTF8 entries referenced by class, string, module or package entries are names or values, but not descriptors
+      nonDescriptorEntries.clear();
+      for (int i = 1; i < itemCount; i++) {
+         final int offset = cr.getItem(i);
+         if (offset == 0) {
+            continue; // second slot of a long or double entry
+         }
+         switch (bytes[offset - 1]) {
+            case CONSTANT_CLASS:
+               nonDescriptorEntries.set(cr.readUnsignedShort(offset));
+               reportClassReference(cr.readUTF8(offset, charBuffer));
+               break;
+            case CONSTANT_STRING:
+            case CONSTANT_MODULE:
+            case CONSTANT_PACKAGE:
+               nonDescriptorEntries.set(cr.readUnsignedShort(offset));
+               break;
+            default:
+         }
+      }
+
+      for (int i = 1; i < itemCount; i++) {
+         final int offset = cr.getItem(i);
+         if (offset == 0 || bytes[offset - 1] != CONSTANT_UTF8 || nonDescriptorEntries.get(i)) {
+            continue;
+         }
+         final String descriptor = readDescriptorCandidate(bytes, offset, charBuffer);
+         if (descriptor != null) {
+            parseDescriptorCandidate(descriptor);
+         }
+      }
+   }
 }
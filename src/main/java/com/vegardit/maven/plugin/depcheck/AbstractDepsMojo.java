@@ -0,0 +1,234 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+import com.vegardit.maven.util.AbstractMojo;
+import com.vegardit.maven.util.Pluralized;
+
+/**
+ * Base class of all goals performing a dependency analysis via {@link DepsAnalyzer}.
+ *
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+public abstract class AbstractDepsMojo extends AbstractMojo {
+
+   /**
+    * key = execution key, value = metrics of the analyses of the goal execution performed so far
+    */
+   private static final ConcurrentMap<String, List<ScanMetrics>> REACTOR_METRICS = new ConcurrentHashMap<>();
+
+   /**
+    * Engine used to extract class references from byte code: <code>ASM</code> visits all fields, methods and instructions,
+    * <code>CONSTANT_POOL</code> only reads the constant pool of each class file and skips method bodies which is considerably faster.
+    */
+   @Parameter(property = "depcheck.analyzerEngine", defaultValue = "ASM")
+   ClassAnalyzerEngine analyzerEngine;
+
+   /**
+    * Maximum number of class names held by the JVM-wide in-memory cache of classes declared by dependency artifacts. The cache is
+    * shared by all modules of a build and survives between builds when running in a Maven daemon, thus it is bounded by the largest value
+    * configured by any execution. <code>0</code> disables the cache for this execution.
+    */
+   @Parameter(property = "depcheck.artifactCacheMaxClasses", defaultValue = "250000")
+   int artifactCacheMaxClasses;
+
+   /**
+    * Directory of the persistent index that holds the classes declared by the JAR files of dependency artifacts.
+    * Defaults to <code>.cache/depcheck-maven-plugin</code> inside the local Maven repository.
+    */
+   @Parameter(property = "depcheck.artifactIndexDirectory")
+   File artifactIndexDirectory;
+
+   /**
+    * Specifies if transitive dependencies shall only be resolved and scanned until all classes referenced by the project - except
+    * classes of the Java platform - are attributed to an artifact. The artifacts are checked in the order of their likelihood to
+    * declare the referenced classes, based on their group ID. If multiple transitive dependencies declare the same class, the
+    * class is attributed to the first artifact scanned.
+    */
+   @Parameter(property = "depcheck.demandDrivenTransitiveScan", defaultValue = "false")
+   boolean demandDrivenTransitiveScan;
+
+   /**
+    * Maximum number of worker threads shared by all concurrently running analyses of this plugin, e.g. of the modules of a parallel
+    * build started with <code>mvn -T ...</code>. <code>0</code> uses the number of available processors. The value of the goal
+    * execution starting the worker threads applies until all goal executions sharing them finished.
+    */
+   @Parameter(property = "depcheck.maxThreads", defaultValue = "0")
+   int maxThreads;
+
+   /**
+    * Number of threads used by the analysis of a single project to parse the class files of the project's output directory and to
+    * resolve and index the JAR files of dependencies, including the project's build thread. The additional threads are taken from
+    * the worker threads shared by all analyses, see <code>maxThreads</code>. <code>1</code> performs all work sequentially.
+    */
+   @Parameter(property = "depcheck.threads", defaultValue = "1")
+   int threads;
+
+   /**
+    * Specifies if the classes declared and referenced by each class file of the project's output directory shall be cached in the
+    * build directory, so that subsequent analyses only parse added and modified class files.
+    */
+   @Parameter(property = "depcheck.useClassFileCache", defaultValue = "true")
+   boolean useClassFileCache;
+
+   /**
+    * Specifies if the classes declared by dependency artifacts shall be read from and stored in the persistent index
+    * so that the JAR files only need to be enumerated once per machine.
+    */
+   @Parameter(property = "depcheck.useArtifactIndex", defaultValue = "true")
+   boolean useArtifactIndex;
+
+   /**
+    * Specifies if the wall time and the counters of each phase of the analysis of a project, e.g. the number of parsed class files,
+    * read JAR entries and cache hits, shall be written to <code>depcheck-maven-plugin/&lt;goal&gt;.stats.json</code> in the project's
+    * build directory. A summary of all analyzed projects is written to <code>depcheck-maven-plugin/&lt;goal&gt;.reactor-stats.json</code>
+    * in the build directory of the first project of the reactor.
+    */
+   @Parameter(property = "depcheck.writeStats", defaultValue = "false")
+   boolean writeStats;
+
+   /**
+    * the plugin-wide scheduler acquired by the analysis of the current project, released by {@link #executeAfterEachProject()}
+    */
+   private SharedScheduler scheduler;
+
+   /**
+    * Releases the plugin-wide scheduler, which stops its worker threads unless they are used by other goal executions.
+    */
+   @Override
+   protected synchronized void executeAfterEachProject() throws MojoExecutionException, MojoFailureException {
+      if (scheduler != null) {
+         scheduler = null;
+         SharedScheduler.release();
+      }
+   }
+
+   /**
+    * Writes the summary of the metrics of all analyses of this goal execution. Subclasses overriding this method must call it.
+    */
+   @Override
+   protected void executeAfterLastProject() throws MojoExecutionException, MojoFailureException {
+      final List<ScanMetrics> reactorMetrics = REACTOR_METRICS.remove(getExecutionKey());
+      if (reactorMetrics != null && !mvnReactorProjects.isEmpty()) {
+         final var sortedMetrics = new ArrayList<>(reactorMetrics);
+         sortedMetrics.sort(Comparator.comparing(metrics -> metrics.module));
+         final Path statsFile = getStatsFile(mvnReactorProjects.get(0), "reactor-stats");
+         writeStats(statsFile, ScanMetrics.toJson(sortedMetrics));
+
+         // the analyses of a parallel build or of the aggregate goal overlap, thus their summed time may exceed the elapsed time
+         long summedWallTimeNanos = 0;
+         for (final ScanMetrics metrics : sortedMetrics) {
+            summedWallTimeNanos += metrics.getWallTimeNanos();
+         }
+         log.info("Analyzed " + Pluralized.modules(sortedMetrics.size()) + " with a summed analysis time of " + TimeUnit.NANOSECONDS
+            .toMillis(summedWallTimeNanos) + " ms. Stats written to " + statsFile);
+      }
+   }
+
+   public ClassAnalyzerEngine getAnalyzerEngine() {
+      return analyzerEngine == null ? ClassAnalyzerEngine.ASM : analyzerEngine;
+   }
+
+   public int getArtifactCacheMaxClasses() {
+      return artifactCacheMaxClasses;
+   }
+
+   /**
+    * @return null if the persistent artifact index is disabled
+    */
+   public Path getArtifactIndexDirectory() {
+      if (!useArtifactIndex)
+         return null;
+
+      if (artifactIndexDirectory != null)
+         return artifactIndexDirectory.toPath();
+
+      if (mvnLocalRepo == null || mvnLocalRepo.getBasedir() == null)
+         return null;
+
+      return new File(mvnLocalRepo.getBasedir(), ".cache/depcheck-maven-plugin").toPath();
+   }
+
+   /**
+    * @return the version of this plugin or null if unknown
+    */
+   public String getPluginVersion() {
+      if (mvnExecution == null || mvnExecution.getMojoDescriptor() == null || mvnExecution.getMojoDescriptor()
+         .getPluginDescriptor() == null)
+         return null;
+      return mvnExecution.getMojoDescriptor().getPluginDescriptor().getVersion();
+   }
+
+   /**
+    * @return the plugin-wide scheduler, which is kept running until {@link #executeAfterEachProject()} of this goal execution
+    */
+   synchronized SharedScheduler getScheduler() {
+      if (scheduler == null) {
+         scheduler = SharedScheduler.acquire(maxThreads);
+      }
+      return scheduler;
+   }
+
+   Path getStatsFile(final MavenProject project, final String suffix) {
+      return Paths.get(project.getBuild().getDirectory(), "depcheck-maven-plugin", mvnExecution.getGoal() + "." + suffix + ".json");
+   }
+
+   public int getThreads() {
+      return threads;
+   }
+
+   public boolean isDemandDrivenTransitiveScan() {
+      return demandDrivenTransitiveScan;
+   }
+
+   public boolean isUseClassFileCache() {
+      return useClassFileCache;
+   }
+
+   /**
+    * Writes the metrics of the given analyzer to the stats file of its project and retains them for the summary written by
+    * {@link #executeAfterLastProject()}, unless {@link #writeStats} is disabled.
+    */
+   void recordMetrics(final DepsAnalyzer analyzer) {
+      if (!writeStats)
+         return;
+
+      final ScanMetrics metrics = analyzer.getMetrics();
+      writeStats(getStatsFile(analyzer.getProject(), "stats"), metrics.toJson());
+      REACTOR_METRICS.computeIfAbsent(getExecutionKey(), key -> new CopyOnWriteArrayList<>()).add(metrics);
+   }
+
+   /**
+    * Failures are logged but not propagated since the stats are only diagnostics.
+    */
+   private void writeStats(final Path file, final String json) {
+      try {
+         Files.createDirectories(file.getParent());
+         Files.write(file, json.getBytes(UTF_8));
+      } catch (final IOException ex) {
+         log.warn("Writing stats file " + file + " failed: " + ex.getMessage());
+      }
+   }
+}
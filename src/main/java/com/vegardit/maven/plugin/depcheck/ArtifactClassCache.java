@@ -0,0 +1,112 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-memory cache of the classes declared by artifact JAR files.
+ *
+ * <p>
+ * The {@link #SHARED} instance is shared by all module executions of a build and - since it is held by the plugin's class realm - also
+ * survives between builds executed by a long-lived Maven daemon (mvnd). Entries are keyed by the identity of the JAR file (path, size and
+ * last modification time) and the least recently used entries are evicted once the total number of cached package and class names
+ * exceeds the limit.
+ * </p>
+ *
+ * <p>
+ * Executions configuring different limits share the same cache, thus the limit is the largest limit requested by any execution, see
+ * {@link #raiseMaxCachedClasses(int)}. It is never lowered, so that one execution cannot evict the entries used by concurrently running
+ * executions.
+ * </p>
+ *
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ *
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+final class ArtifactClassCache {
+
+   /**
+    * JVM-wide instance
+    */
+   static final ArtifactClassCache SHARED = new ArtifactClassCache();
+
+   private static String getFileIdentity(final File file) throws IOException {
+      final var attrs = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+      return file.getAbsolutePath() + "|" + attrs.size() + "|" + attrs.lastModifiedTime().toMillis();
+   }
+
+   private final Map<String, ArtifactClasses> cache = new LinkedHashMap<>(64, 0.75f, true);
+   private int cachedClassesCount;
+   private int maxCachedClasses;
+
+   /**
+    * @return the cached classes declared by the given JAR file or null if not cached
+    */
+   ArtifactClasses get(final File jarFile) throws IOException {
+      final String key = getFileIdentity(jarFile);
+      synchronized (this) {
+         return cache.get(key);
+      }
+   }
+
+   /**
+    * @return the number of package and class names held by the cache
+    */
+   synchronized int getCachedClassesCount() {
+      return cachedClassesCount;
+   }
+
+   synchronized int getMaxCachedClasses() {
+      return maxCachedClasses;
+   }
+
+   /**
+    * Stores the given declared classes replacing any previously cached, e.g. not yet materialized, entry. Entries exceeding the limit of
+    * the cache on their own are not cached.
+    *
+    * @return the given declared classes
+    */
+   ArtifactClasses put(final File jarFile, final ArtifactClasses declaredClasses) throws IOException {
+      final String key = getFileIdentity(jarFile);
+      synchronized (this) {
+         if (declaredClasses.size() > maxCachedClasses) {
+            final ArtifactClasses removed = cache.remove(key);
+            if (removed != null) {
+               cachedClassesCount -= removed.size();
+            }
+            return declaredClasses;
+         }
+
+         final ArtifactClasses replaced = cache.put(key, declaredClasses);
+         if (replaced != null) {
+            cachedClassesCount -= replaced.size();
+         }
+         cachedClassesCount += declaredClasses.size();
+
+         // evict the least recently used entries until the cache is within its bounds
+         for (final Iterator<ArtifactClasses> it = cache.values().iterator(); cachedClassesCount > maxCachedClasses && it.hasNext();) {
+            cachedClassesCount -= it.next().size();
+            it.remove();
+         }
+      }
+      return declaredClasses;
+   }
+
+   /**
+    * Raises the limit of the cache to the given number of package and class names if it is lower.
+    */
+   synchronized void raiseMaxCachedClasses(final int maxClasses) {
+      maxCachedClasses = Math.max(maxCachedClasses, maxClasses);
+   }
+}
@@ -0,0 +1,171 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashSet;
+import java.util.TreeSet;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.logging.Log;
+
+import net.sf.jstuff.core.Strings;
+import net.sf.jstuff.core.validation.Args;
+
+/**
+ * Persistent on-disk index of the classes declared by the JAR files of artifacts.
+ *
+ * <p>
+ * Each artifact is stored in a separate index file keyed by its coordinates. An index file is only used if the size, the last
+ * modification time and - if present - the SHA-1 checksum file Maven placed next to the JAR file still match the values recorded
+ * when the index file was written.
+ * </p>
+ * <p>
+ * An index file holds the number of declared classes and the declared packages, followed by the internal names of the declared classes
+ * if they have been materialized, see {@link ArtifactClasses}:
+ * </p>
+ *
+ * <pre>
+ * depcheck-artifact-index:3
+ * &lt;size&gt;:&lt;lastModified&gt;:&lt;sha1&gt;
+ * &lt;classCount&gt; &lt;packageCount&gt;
+ * &lt;package&gt;...
+ * &lt;class&gt;...
+ * </pre>
+ *
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+final class ArtifactClassIndex {
+
+   private static final String FORMAT_VERSION = "depcheck-artifact-index:3";
+
+   /**
+    * @return e.g. "1234:1681234567000:da39a3ee5e6b4b0d3255bfef95601890afd80709"
+    */
+   private static String getFileIdentity(final File file) throws IOException {
+      final var attrs = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+      String checksum = "-";
+      final var checksumFile = new File(file.getPath() + ".sha1");
+      if (checksumFile.isFile()) {
+         // the file may contain "<checksum> <filename>"
+         checksum = Strings.substringBefore(Files.readString(checksumFile.toPath(), UTF_8).trim(), " ");
+      }
+      return attrs.size() + ":" + attrs.lastModifiedTime().toMillis() + ":" + checksum;
+   }
+
+   private final Path indexDirectory;
+   private final Log log;
+
+   ArtifactClassIndex(final Path indexDirectory, final Log log) {
+      Args.notNull("indexDirectory", indexDirectory);
+      Args.notNull("log", log);
+
+      this.indexDirectory = indexDirectory;
+      this.log = log;
+   }
+
+   /**
+    * @param withClasses if true, only index files containing the names of the declared classes are considered
+    * @return the classes declared by the given artifact or null if the artifact is not indexed or the index file is outdated
+    */
+   ArtifactClasses get(final Artifact artifact, final boolean withClasses) {
+      final Path indexFile = getIndexFile(artifact);
+      if (!Files.isRegularFile(indexFile))
+         return null;
+
+      try (var reader = Files.newBufferedReader(indexFile, UTF_8)) {
+         if (!FORMAT_VERSION.equals(reader.readLine()) || !getFileIdentity(artifact.getFile()).equals(reader.readLine()))
+            return null;
+
+         final String counts = reader.readLine();
+         if (counts == null)
+            return null;
+         final int classCount = Integer.parseInt(Strings.substringBefore(counts, " "));
+         final int packageCount = Integer.parseInt(Strings.substringAfter(counts, " "));
+
+         final var declaredPackages = new HashSet<String>(packageCount * 4 / 3 + 1);
+         for (int i = 0; i < packageCount; i++) {
+            final String line = reader.readLine();
+            if (line == null)
+               return null;
+            declaredPackages.add(line);
+         }
+
+         if (!withClasses)
+            return new ArtifactClasses(declaredPackages, classCount, null);
+
+         final var declaredClasses = new HashSet<String>(classCount * 4 / 3 + 1);
+         String line;
+         while ((line = reader.readLine()) != null) {
+            if (!line.isEmpty()) {
+               declaredClasses.add(line);
+            }
+         }
+         if (declaredClasses.size() != classCount)
+            return null;
+         return new ArtifactClasses(declaredPackages, classCount, declaredClasses);
+      } catch (final IOException | RuntimeException ex) {
+         log.debug("Reading artifact index file " + indexFile + " failed: " + ex.getMessage(), ex);
+         return null;
+      }
+   }
+
+   private Path getIndexFile(final Artifact artifact) {
+      final String fileName = artifact.getArtifactId() + "-" + artifact.getVersion() //
+            + (Strings.isEmpty(artifact.getClassifier()) ? "" : "-" + artifact.getClassifier()) //
+            + "." + artifact.getType() + ".idx";
+      return indexDirectory //
+         .resolve(artifact.getGroupId()) //
+         .resolve(artifact.getArtifactId()) //
+         .resolve(artifact.getVersion()) //
+         .resolve(fileName);
+   }
+
+   /**
+    * Stores the classes declared by the given artifact. Failures are logged but not propagated since the index is only an optimization.
+    */
+   void put(final Artifact artifact, final ArtifactClasses declaredClasses) {
+      final Path indexFile = getIndexFile(artifact);
+      try {
+         final String fileIdentity = getFileIdentity(artifact.getFile());
+         Files.createDirectories(indexFile.getParent());
+
+         // write to a temporary file first so concurrent builds on the same machine never see partially written index files
+         final Path tmpFile = Files.createTempFile(indexFile.getParent(), indexFile.getFileName().toString(), ".tmp");
+         try {
+            try (var writer = Files.newBufferedWriter(tmpFile, UTF_8)) {
+               writer.write(FORMAT_VERSION);
+               writer.newLine();
+               writer.write(fileIdentity);
+               writer.newLine();
+               writer.write(declaredClasses.classCount + " " + declaredClasses.packages.size());
+               writer.newLine();
+               for (final String declaredPackage : new TreeSet<>(declaredClasses.packages)) {
+                  writer.write(declaredPackage);
+                  writer.newLine();
+               }
+               if (declaredClasses.isMaterialized()) {
+                  for (final String declaredClass : new TreeSet<>(declaredClasses.classes)) {
+                     writer.write(declaredClass);
+                     writer.newLine();
+                  }
+               }
+            }
+            Files.move(tmpFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+         } finally {
+            Files.deleteIfExists(tmpFile);
+         }
+      } catch (final IOException ex) {
+         log.warn("Writing artifact index file " + indexFile + " failed: " + ex.getMessage());
+      }
+   }
+}
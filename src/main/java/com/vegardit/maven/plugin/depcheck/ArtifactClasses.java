@@ -0,0 +1,86 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Two-tier index of the classes declared by an artifact.
+ *
+ * <p>
+ * The first tier consists of the packages and the number of declared classes which can be determined cheaply from the entry names
+ * of a JAR file. The second tier - the names of all declared classes - is only materialized for artifacts declaring a package that
+ * may contain one of the referenced classes.
+ * </p>
+ *
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+final class ArtifactClasses {
+
+   static final ArtifactClasses EMPTY = of(Collections.emptySet());
+
+   /**
+    * @param classNames internal class names, e.g. <code>com/acme/Outer$Inner</code>
+    */
+   static ArtifactClasses of(final Set<String> classNames) {
+      return new ArtifactClasses(getPackages(classNames), classNames.size(), classNames);
+   }
+
+   /**
+    * @param classNames internal class names, e.g. <code>com/acme/Outer$Inner</code>
+    * @return the internal package names of the given classes, e.g. <code>com/acme</code>, or an empty string for classes of the
+    *         unnamed package
+    */
+   static Set<String> getPackages(final Collection<String> classNames) {
+      final var packages = new HashSet<String>();
+      for (final String className : classNames) {
+         final int lastSlash = className.lastIndexOf('/');
+         packages.add(lastSlash < 0 ? "" : className.substring(0, lastSlash));
+      }
+      return packages;
+   }
+
+   final int classCount;
+
+   /**
+    * the internal names of the declared classes or null if not materialized
+    */
+   final Set<String> classes;
+
+   final Set<String> packages;
+
+   ArtifactClasses(final Set<String> packages, final int classCount, final Set<String> classes) {
+      this.packages = Collections.unmodifiableSet(packages);
+      this.classCount = classCount;
+      this.classes = classes == null ? null : Collections.unmodifiableSet(classes);
+   }
+
+   /**
+    * @return true if the artifact declares classes in at least one of the given packages
+    */
+   boolean declaresAnyPackageOf(final Set<String> packageNames) {
+      final Set<String> smaller = packageNames.size() < packages.size() ? packageNames : packages;
+      final Set<String> larger = smaller == packages ? packageNames : packages;
+      for (final String packageName : smaller) {
+         if (larger.contains(packageName))
+            return true;
+      }
+      return false;
+   }
+
+   boolean isMaterialized() {
+      return classes != null;
+   }
+
+   /**
+    * @return the number of strings held by this instance
+    */
+   int size() {
+      return packages.size() + (classes == null ? 0 : classes.size());
+   }
+}
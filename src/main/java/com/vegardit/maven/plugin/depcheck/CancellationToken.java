@@ -0,0 +1,64 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * Token shared by all analyses of a goal execution with <code>failFast</code> enabled. The first analysis confirming a violation that
+ * fails the build cancels the token, which makes all other analyses stop their outstanding work.
+ *
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ *
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+final class CancellationToken {
+
+   /**
+    * Thrown by analyses stopped because another analysis cancelled the token.
+    */
+   static final class CancelledException extends MojoExecutionException {
+      private static final long serialVersionUID = 1L;
+
+      CancelledException(final String message) {
+         super(message);
+      }
+   }
+
+   final boolean cancelOnUnusedDependencies;
+   final boolean cancelOnUsedTransitiveDependencies;
+   private volatile String reason;
+
+   /**
+    * @param cancelOnUnusedDependencies if the token shall be cancelled once a potentially unused direct dependency is found
+    * @param cancelOnUsedTransitiveDependencies if the token shall be cancelled once a directly used transitive dependency is found
+    */
+   CancellationToken(final boolean cancelOnUnusedDependencies, final boolean cancelOnUsedTransitiveDependencies) {
+      this.cancelOnUnusedDependencies = cancelOnUnusedDependencies;
+      this.cancelOnUsedTransitiveDependencies = cancelOnUsedTransitiveDependencies;
+   }
+
+   /**
+    * @return true if this call cancelled the token, false if it was already cancelled
+    */
+   synchronized boolean cancel(final String reason) {
+      if (this.reason != null)
+         return false;
+      this.reason = reason;
+      return true;
+   }
+
+   boolean isCancelled() {
+      return reason != null;
+   }
+
+   void throwIfCancelled() throws CancelledException {
+      final String reason = this.reason;
+      if (reason != null)
+         throw new CancelledException("Analysis cancelled: " + reason);
+   }
+}
@@ -0,0 +1,105 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+
+import com.vegardit.maven.util.Pluralized;
+
+/**
+ * This Maven goal performs the analysis of the {@link CheckDepsMojo check-deps} goal for all modules of the reactor in a single
+ * invocation and reports the violations of all modules at once.
+ *
+ * <p>
+ * The modules are analyzed concurrently by the worker threads of the plugin-wide scheduler, see <code>maxThreads</code>, thus the analyses
+ * of the modules and their internal parallelism share the same threads and do not oversubscribe the CPUs. The analyses share an index of
+ * the resolved dependency artifacts and of the classes declared by them, so that an artifact resolved or enumerated for one module is
+ * reused by the analyses of all other modules. The dependencies of each module are resolved as part of its analysis, thus the resolution of
+ * the dependencies of one module overlaps with the scanning of other modules.
+ * </p>
+ *
+ * <p>
+ * <b>Usage:</b> <code>mvn compile com.vegardit.maven:depcheck-maven-plugin:check-deps-aggregate</code>
+ * </p>
+ *
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+@Mojo( //
+   name = CheckDepsAggregateMojo.MAVEN_GOAL, //
+   defaultPhase = LifecyclePhase.NONE, //
+   aggregator = true, //
+   requiresDependencyCollection = ResolutionScope.COMPILE, //
+   threadSafe = true //
+)
+public final class CheckDepsAggregateMojo extends AbstractCheckDepsMojo {
+
+   public static final String MAVEN_GOAL = "check-deps-aggregate";
+
+   @Override
+   protected void executeOnEachProject() throws MojoExecutionException {
+      final var reactorArtifactIndex = new ReactorArtifactIndex();
+      final CancellationToken cancellation = getCancellationToken();
+      final var analyzers = new ArrayList<DepsAnalyzer>(mvnReactorProjects.size());
+      for (final MavenProject project : mvnReactorProjects) {
+         analyzers.add(new DepsAnalyzer(this, project, reactorArtifactIndex, cancellation));
+      }
+
+      log.info("Analyzing " + Pluralized.modules(analyzers.size()) + "...");
+      final var results = new ArrayList<DepsAnalyzer.ScanResult>(analyzers.size());
+      final SharedScheduler scheduler = getScheduler();
+      final SharedScheduler.Queue queue = scheduler.newQueue(scheduler.getThreads());
+      final var tasks = new ArrayList<Future<DepsAnalyzer.ScanResult>>(analyzers.size());
+      try {
+         for (final DepsAnalyzer analyzer : analyzers) {
+            tasks.add(queue.submit(() -> scanIfChanged(analyzer)));
+         }
+
+         // collect the results in reactor order so the report does not depend on the order in which the modules were analyzed
+         for (final Future<DepsAnalyzer.ScanResult> task : tasks) {
+            final DepsAnalyzer.ScanResult result;
+            try {
+               // while waiting, the calling thread analyzes pending modules itself
+               result = queue.await(task);
+            } catch (final ExecutionException ex) {
+               // skip modules whose analysis was cancelled, the module that cancelled it reports its violations below
+               if (ex.getCause() instanceof CancellationToken.CancelledException) {
+                  continue;
+               }
+               throw ex;
+            }
+            if (failFast) {
+               assertNoViolations(Collections.singletonList(result));
+            }
+            results.add(result);
+         }
+      } catch (final InterruptedException ex) {
+         Thread.currentThread().interrupt();
+         throw new MojoExecutionException("Waiting for the analysis of the modules was interrupted.", ex);
+      } catch (final ExecutionException ex) {
+         final Throwable cause = ex.getCause();
+         if (cause instanceof MojoExecutionException)
+            throw (MojoExecutionException) cause;
+         throw new MojoExecutionException(cause.getMessage(), cause);
+      } finally {
+         // skip the modules not analyzed yet if the analysis of a module failed
+         for (final Future<DepsAnalyzer.ScanResult> task : tasks) {
+            task.cancel(false);
+         }
+      }
+
+      if (!failFast) {
+         assertNoViolations(results);
+      }
+   }
+}
@@ -0,0 +1,30 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+/**
+ * The strategies {@link AbstractClassAnalyzer} supports to extract class references from byte code.
+ *
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+public enum ClassAnalyzerEngine {
+
+   /**
+    * Visits the complete class structure including all instructions of method bodies using ASM.
+    */
+   ASM,
+
+   /**
+    * Only reads the constant pool, i.e. all class entries and all UTF8 entries holding type descriptors or signatures,
+    * without visiting fields, methods and their instructions.
+    *
+    * <p>
+    * Since the descriptors of local variable debug information are also stored in the constant pool, this engine finds all classes
+    * found by {@link #ASM}. Additionally it reports classes that are only referenced by invokedynamic call sites and their bootstrap
+    * methods, by enum values of annotations and by the InnerClasses, EnclosingMethod and NestHost/NestMembers attributes.
+    * </p>
+    */
+   CONSTANT_POOL
+}
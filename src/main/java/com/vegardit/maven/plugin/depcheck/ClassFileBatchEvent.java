@@ -0,0 +1,40 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event emitted for each batch of class files of a project's output directory parsed by a worker thread.
+ *
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+@Name("com.vegardit.maven.depcheck.ClassFileBatch")
+@Label("Class File Batch")
+@Category({"Maven", "depcheck"})
+@Description("Parsing of a batch of class files of a project's output directory")
+@StackTrace(false)
+final class ClassFileBatchEvent extends Event {
+
+   @Label("Module")
+   @Description("The analyzed project, e.g. com.acme:foo:1.0")
+   String module;
+
+   @Label("Analyzer Engine")
+   String analyzerEngine;
+
+   @Label("Class Files Parsed")
+   int classFilesParsed;
+
+   @Label("Bytes Read")
+   @DataAmount
+   long bytesRead;
+}
@@ -0,0 +1,213 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+import org.apache.maven.plugin.logging.Log;
+
+import net.sf.jstuff.core.Strings;
+import net.sf.jstuff.core.validation.Args;
+
+/**
+ * Persistent cache of the classes declared and referenced by the class files of a project's output directory, so that subsequent
+ * analyses only need to parse added and modified class files.
+ *
+ * <p>
+ * An entry is keyed by the path of the class file relative to the output directory and is only used if size and modification time of
+ * the class file still match. Since file systems store modification times with a limited granularity, a class file modified shortly
+ * before the cache was written may have been modified again without changing its modification time. For such entries the CRC-32
+ * checksum of the file content is compared too.
+ * </p>
+ *
+ * <pre>
+ * depcheck-class-cache:1
+ * &lt;analyzerEngine&gt; &lt;pluginVersion&gt; &lt;writtenAt&gt;
+ * &lt;relativePath&gt; &lt;size&gt; &lt;lastModified&gt; &lt;crc32&gt; &lt;declaredClass&gt; &lt;referencedClass&gt;...
+ * </pre>
+ *
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+final class ClassFileCache {
+
+   static final class CachedClassFile {
+      final long size;
+      final long lastModified;
+      final long checksum;
+
+      /**
+       * internal name of the class declared by the class file
+       */
+      final String declaredClass;
+
+      /**
+       * internal names of the classes referenced by the class file
+       */
+      final List<String> referencedClasses;
+
+      CachedClassFile(final BasicFileAttributes attrs, final long checksum, final String declaredClass,
+            final List<String> referencedClasses) {
+         this(attrs.size(), attrs.lastModifiedTime().toMillis(), checksum, declaredClass, referencedClasses);
+      }
+
+      private CachedClassFile(final long size, final long lastModified, final long checksum, final String declaredClass,
+            final List<String> referencedClasses) {
+         this.size = size;
+         this.lastModified = lastModified;
+         this.checksum = checksum;
+         this.declaredClass = declaredClass;
+         this.referencedClasses = referencedClasses;
+      }
+   }
+
+   private static final String FORMAT_VERSION = "depcheck-class-cache:1";
+
+   /**
+    * coarsest granularity of file modification times of common file systems, e.g. FAT
+    */
+   private static final long MAX_MODIFICATION_TIME_GRANULARITY = 2_000;
+
+   static long checksumOf(final byte[] bytes) {
+      final var crc = new CRC32();
+      crc.update(bytes);
+      return crc.getValue();
+   }
+
+   private final String analyzerId;
+
+   /**
+    * key = relative path of the class file
+    */
+   private final Map<String, CachedClassFile> cachedClassFiles = new HashMap<>();
+
+   /**
+    * the entries of all class files found by the current analysis, key = relative path of the class file
+    */
+   private final Map<String, CachedClassFile> currentClassFiles = new ConcurrentHashMap<>();
+
+   private final Path file;
+   private final Log log;
+   private volatile boolean isModified;
+
+   /**
+    * time when the loaded cache file was written
+    */
+   private long writtenAt;
+
+   ClassFileCache(final Path file, final ClassAnalyzerEngine analyzerEngine, final String pluginVersion, final Log log) {
+      Args.notNull("file", file);
+      Args.notNull("analyzerEngine", analyzerEngine);
+      Args.notNull("log", log);
+
+      this.file = file;
+      analyzerId = analyzerEngine + " " + pluginVersion;
+      this.log = log;
+   }
+
+   /**
+    * @return the cached entry of the given class file or null if the class file is not cached or was modified
+    */
+   CachedClassFile get(final String relativePath, final Path classFile, final BasicFileAttributes attrs) throws IOException {
+      final CachedClassFile cached = cachedClassFiles.get(relativePath);
+      if (cached == null || cached.size != attrs.size() || cached.lastModified != attrs.lastModifiedTime().toMillis())
+         return null;
+
+      if (cached.lastModified >= writtenAt - MAX_MODIFICATION_TIME_GRANULARITY && cached.checksum != checksumOf(Files.readAllBytes(
+         classFile)))
+         return null;
+
+      currentClassFiles.put(relativePath, cached);
+      return cached;
+   }
+
+   /**
+    * Loads the cache file. Failures are logged but not propagated since the cache is only an optimization.
+    */
+   void load() {
+      cachedClassFiles.clear();
+      if (!Files.isRegularFile(file))
+         return;
+
+      try (var reader = Files.newBufferedReader(file, UTF_8)) {
+         if (!FORMAT_VERSION.equals(reader.readLine()))
+            return;
+         final String header = reader.readLine();
+         if (header == null || !analyzerId.equals(Strings.substringBeforeLast(header, " ")))
+            return;
+         writtenAt = Long.parseLong(Strings.substringAfterLast(header, " "));
+
+         String line;
+         while ((line = reader.readLine()) != null) {
+            final String[] fields = Strings.split(line, ' ');
+            if (fields.length < 5) {
+               continue;
+            }
+            cachedClassFiles.put(fields[0], new CachedClassFile(Long.parseLong(fields[1]), Long.parseLong(fields[2]), Long.parseLong(
+               fields[3]), fields[4], Arrays.asList(fields).subList(5, fields.length)));
+         }
+      } catch (final IOException | RuntimeException ex) {
+         log.debug("Reading class file cache " + file + " failed: " + ex.getMessage(), ex);
+         cachedClassFiles.clear();
+      }
+   }
+
+   void put(final String relativePath, final CachedClassFile classFile) {
+      currentClassFiles.put(relativePath, classFile);
+      isModified = true;
+   }
+
+   /**
+    * Stores the entries of all class files found by the current analysis, i.e. entries of deleted class files are removed. Failures are
+    * logged but not propagated since the cache is only an optimization.
+    */
+   void save() {
+      if (!isModified && currentClassFiles.size() == cachedClassFiles.size())
+         return;
+
+      try {
+         Files.createDirectories(file.getParent());
+
+         // write to a temporary file first so an interrupted build never leaves a partially written cache behind
+         final Path tmpFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+         try {
+            try (var writer = Files.newBufferedWriter(tmpFile, UTF_8)) {
+               writer.write(FORMAT_VERSION);
+               writer.newLine();
+               writer.write(analyzerId + " " + System.currentTimeMillis());
+               writer.newLine();
+               for (final Entry<String, CachedClassFile> entry : new TreeMap<>(currentClassFiles).entrySet()) {
+                  final CachedClassFile classFile = entry.getValue();
+                  writer.write(entry.getKey() + " " + classFile.size + " " + classFile.lastModified + " " + classFile.checksum + " "
+                        + classFile.declaredClass);
+                  for (final String referencedClass : classFile.referencedClasses) {
+                     writer.write(' ');
+                     writer.write(referencedClass);
+                  }
+                  writer.newLine();
+               }
+            }
+            Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+         } finally {
+            Files.deleteIfExists(tmpFile);
+         }
+      } catch (final IOException ex) {
+         log.warn("Writing class file cache " + file + " failed: " + ex.getMessage());
+      }
+   }
+}
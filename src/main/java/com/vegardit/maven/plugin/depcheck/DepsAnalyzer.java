@@ -4,24 +4,38 @@
  */
 package com.vegardit.maven.plugin.depcheck;
 
-import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.NoSuchElementException;
+import java.util.Map.Entry;
 import java.util.Set;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -29,12 +43,11 @@
 import org.apache.maven.project.MavenProject;
 import org.objectweb.asm.Opcodes;
 
-import com.vegardit.maven.util.AbstractMojo;
+import com.vegardit.maven.plugin.depcheck.ClassFileCache.CachedClassFile;
 import com.vegardit.maven.util.MavenUtils;
 import com.vegardit.maven.util.Pluralized;
 
 import net.sf.jstuff.core.Strings;
-import net.sf.jstuff.core.collection.Enumerations;
 import net.sf.jstuff.core.collection.tuple.Tuple2;
 import net.sf.jstuff.core.validation.Args;
 
@@ -45,9 +58,18 @@ public class DepsAnalyzer {
 
    public static class ScanResult {
       public final MavenProject project;
+
+      /**
+       * value = internal names of the used classes, e.g. <code>com/acme/Outer$Inner</code>
+       */
       public final Map<Artifact, Set<String>> usedClassesOfTransitiveDependencies = new HashMap<>();
       public final Set<Artifact> unusedDirectDependencies = new HashSet<>();
 
+      /**
+       * true if the analysis stopped after confirming the first violation, see {@link CancellationToken}
+       */
+      boolean isPartial;
+
       public ScanResult(final MavenProject project) {
          this.project = project;
       }
@@ -65,73 +87,439 @@ public boolean hasUnusedDirectDependencies() {
       }
    }
 
+   /**
+    * key of the {@link MavenProject#getContextValue(String) project context value} holding the classes declared by a reactor project
+    */
+   private static final String DECLARED_CLASSES_CONTEXT_KEY = DepsAnalyzer.class.getName() + ".declaredClasses";
+
+   /**
+    * internal names of the packages of the Java platform modules, e.g. <code>java/util</code>
+    */
+   private static final Set<String> JAVA_PLATFORM_PACKAGES = ModuleLayer.boot().modules().stream() //
+      .flatMap(module -> module.getPackages().stream()) //
+      .map(packageName -> packageName.replace('.', '/')) //
+      .collect(Collectors.toUnmodifiableSet());
+
+   /**
+    * Adds the relative paths, sizes and modification times of all class files in the given directory to the given digest.
+    */
+   private static void digestClassFiles(final MessageDigest digest, final Path classDirectory) throws IOException {
+      if (!Files.isDirectory(classDirectory)) {
+         updateDigest(digest, "-");
+         return;
+      }
+
+      // sorted, since the order in which files are visited is not guaranteed
+      final var classFiles = new TreeMap<String, String>();
+      Files.walkFileTree(classDirectory, new SimpleFileVisitor<>() {
+         @Override
+         public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+            if (attrs.isRegularFile() && file.toString().endsWith(".class")) {
+               classFiles.put(classDirectory.relativize(file).toString(), attrs.size() + ":" + attrs.lastModifiedTime().toMillis());
+            }
+            return FileVisitResult.CONTINUE;
+         }
+      });
+      for (final Entry<String, String> classFile : classFiles.entrySet()) {
+         updateDigest(digest, classFile.getKey() + "=" + classFile.getValue());
+      }
+   }
+
+   /**
+    * @return the IDs of the given referenced classes that are contained in the given declared classes
+    */
+   static BitSet getDeclaredClasses(final SymbolTable symbols, final BitSet referencedClasses, final Set<String> declaredClasses) {
+      final var result = new BitSet();
+      if (declaredClasses.isEmpty())
+         return result;
+
+      // iterate over the smaller of both sets
+      if (referencedClasses.cardinality() < declaredClasses.size()) {
+         for (int id = referencedClasses.nextSetBit(0); id >= 0; id = referencedClasses.nextSetBit(id + 1)) {
+            if (declaredClasses.contains(symbols.nameOf(id))) {
+               result.set(id);
+            }
+         }
+      } else {
+         for (final String declaredClass : declaredClasses) {
+            final int id = symbols.idOf(declaredClass);
+            if (id > -1 && referencedClasses.get(id)) {
+               result.set(id);
+            }
+         }
+      }
+      return result;
+   }
+
+   private static void updateDigest(final MessageDigest digest, final String line) {
+      digest.update(line.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) '\n');
+   }
+
+   private final ClassAnalyzerEngine analyzerEngine;
+
+   /**
+    * null if the JVM-wide cache is disabled for this analysis
+    */
+   private final ArtifactClassCache artifactCache;
+   private final ArtifactClassIndex artifactIndex;
    private final boolean isVerbose;
    private final Log log;
-   private final AbstractMojo mojo;
+   private final ScanMetrics metrics;
+   private final AbstractDepsMojo mojo;
    private final MavenProject project;
 
-   public DepsAnalyzer(final AbstractMojo mojo) {
+   /**
+    * null if the analysis is not part of an aggregate analysis
+    */
+   private final ReactorArtifactIndex reactorArtifactIndex;
+
+   /**
+    * null if the analysis cannot be cancelled
+    */
+   private final CancellationToken cancellation;
+
+   /**
+    * key = groupId:artifactId:version
+    */
+   private final Map<String, MavenProject> reactorProjects = new HashMap<>();
+
+   /**
+    * queue of this analysis in the plugin-wide scheduler or null if the analysis is performed sequentially
+    */
+   private final SharedScheduler.Queue schedulerQueue;
+   private final int threads;
+   private final boolean demandDrivenTransitiveScan;
+
+   public DepsAnalyzer(final AbstractDepsMojo mojo) {
+      this(mojo, mojo.getProject(), null, null);
+   }
+
+   /**
+    * @param project the project to analyze
+    * @param reactorArtifactIndex index shared by the analyses of all modules of the reactor or null
+    * @param cancellation token shared by all analyses of the goal execution or null
+    */
+   DepsAnalyzer(final AbstractDepsMojo mojo, final MavenProject project, final ReactorArtifactIndex reactorArtifactIndex,
+         final CancellationToken cancellation) {
       Args.notNull("mojo", mojo);
+      Args.notNull("project", project);
 
       this.mojo = mojo;
+      this.project = project;
+      this.reactorArtifactIndex = reactorArtifactIndex;
+      this.cancellation = cancellation;
+      metrics = new ScanMetrics(project.getGroupId() + ":" + project.getArtifactId() + ":" + project.getVersion());
       log = mojo.getLog();
-      project = mojo.getProject();
       isVerbose = mojo.isVerbose();
+      threads = Math.max(1, mojo.getThreads());
+      // the calling thread works on the analysis too while awaiting the tasks of the queue
+      schedulerQueue = threads < 2 ? null : mojo.getScheduler().newQueue(threads - 1);
+      analyzerEngine = mojo.getAnalyzerEngine();
+      demandDrivenTransitiveScan = mojo.isDemandDrivenTransitiveScan();
+
+      final Path artifactIndexDirectory = mojo.getArtifactIndexDirectory();
+      artifactIndex = artifactIndexDirectory == null ? null : new ArtifactClassIndex(artifactIndexDirectory, log);
+      if (mojo.getArtifactCacheMaxClasses() > 0) {
+         artifactCache = ArtifactClassCache.SHARED;
+         artifactCache.raiseMaxCachedClasses(mojo.getArtifactCacheMaxClasses());
+      } else {
+         artifactCache = null;
+      }
+
+      if (mojo.getReactorProjects() != null) {
+         for (final MavenProject reactorProject : mojo.getReactorProjects()) {
+            reactorProjects.put(reactorProject.getGroupId() + ":" + reactorProject.getArtifactId() + ":" + reactorProject.getVersion(),
+               reactorProject);
+         }
+      }
    }
 
    /**
-    * @return key = class name, value = declaring artifact
+    * Resolves and scans all transitive dependencies and attributes the given referenced classes to the declaring artifacts. If multiple
+    * transitive dependencies declare the same class, the class is attributed to the last one as a sequential scan would do.
     */
-   private Map<String, Artifact> getClassesDeclaredByTransitiveDependencies() throws MojoExecutionException {
+   private void attributeClassesOfTransitiveDependencies(final SymbolTable symbols, final BitSet referencedClasses, final ScanResult result)
+         throws MojoExecutionException {
+      final List<Artifact> transDeps = getTransitiveDependenciesWithClasses();
+      log.info(" => Found " + Pluralized.dependencies(transDeps.size(), "transitive") + ".");
 
-      final var classesDeclaredByTransitiveDependencies = new HashMap<String, Artifact>();
-      for (final Artifact transDep : MavenUtils.withoutRuntimeAndTestScoped(mojo.getTransitiveDependencies())) {
-         if (!isArtifactWithClasses(transDep)) {
+      // in fail-fast mode the first transitive dependency declaring a referenced class is confirmed while scanning, so that the
+      // remaining dependencies of this and all other analyses of the execution need not be scanned
+      final boolean cancelOnFirstUsage = cancellation != null && cancellation.cancelOnUsedTransitiveDependencies;
+      final Set<String> referencedPackages = cancelOnFirstUsage ? ArtifactClasses.getPackages(symbols.namesOf(referencedClasses)) : null;
+      final var firstUsage = new AtomicReference<Tuple2<Artifact, BitSet>>();
+
+      metrics.startPhase(ScanMetrics.Phase.TRANSITIVE_DEPENDENCY_INDEXING);
+      // resolve upcoming artifacts while already resolved ones are scanned
+      List<ArtifactClasses> packagesDeclaredByTransDeps = null;
+      try {
+         packagesDeclaredByTransDeps = newResolveScanPipeline(transDep -> {
+            final ArtifactClasses artifactClasses = scanTransitiveDependency(transDep);
+            if (cancelOnFirstUsage && artifactClasses.declaresAnyPackageOf(referencedPackages)) {
+               final BitSet usedClasses = getDeclaredClasses(symbols, referencedClasses, materializeDeclaredClasses(transDep));
+               if (!usedClasses.isEmpty() && firstUsage.compareAndSet(null, Tuple2.create(transDep, usedClasses))) {
+                  cancellation.cancel(MavenUtils.toString(project) + " directly uses class " + AbstractClassAnalyzer.toClassName(symbols
+                     .nameOf(usedClasses.nextSetBit(0))) + " of transitive dependency " + transDep);
+               }
+            }
+            return artifactClasses;
+         }).process(transDeps);
+      } catch (final CancellationToken.CancelledException ex) {
+         if (firstUsage.get() == null)
+            throw ex;
+      }
+
+      // the pipeline also completes normally if the usage was found while scanning the last dependencies
+      final Tuple2<Artifact, BitSet> usage = firstUsage.get();
+      if (usage != null) {
+         result.usedClassesOfTransitiveDependencies.put(usage.get1(), new HashSet<>(symbols.namesOf(usage.get2())));
+         result.isPartial = true;
+         return;
+      }
+      final List<Set<String>> classesDeclaredByTransDeps = materializeDeclaredClasses(transDeps, packagesDeclaredByTransDeps, symbols
+         .namesOf(referencedClasses));
+
+      // attribute the classes in reverse order of the dependencies so the last dependency declaring a class wins
+      metrics.startPhase(ScanMetrics.Phase.MATCHING);
+      final var remainingClasses = (BitSet) referencedClasses.clone();
+      for (int i = transDeps.size() - 1; i >= 0 && !remainingClasses.isEmpty(); i--) {
+         final BitSet usedClasses = getDeclaredClasses(symbols, remainingClasses, classesDeclaredByTransDeps.get(i));
+         if (!usedClasses.isEmpty()) {
+            result.usedClassesOfTransitiveDependencies.put(transDeps.get(i), new HashSet<>(symbols.namesOf(usedClasses)));
+            remainingClasses.andNot(usedClasses);
+         }
+      }
+
+      if (isVerbose) {
+         symbols.namesOf(remainingClasses).forEach(referencedClass -> log.info("No transitive dependency declares referenced class: "
+               + AbstractClassAnalyzer.toClassName(referencedClass)));
+      }
+   }
+
+   /**
+    * Resolves and scans the transitive dependencies in the order of their likelihood to declare any of the given referenced classes
+    * and stops as soon as all referenced classes - except classes of the Java platform - have been attributed to an artifact.
+    */
+   private void attributeClassesOfTransitiveDependenciesOnDemand(final SymbolTable symbols, final BitSet referencedClasses,
+         final ScanResult result) throws MojoExecutionException {
+
+      final var remainingClasses = new BitSet();
+      for (int id = referencedClasses.nextSetBit(0); id >= 0; id = referencedClasses.nextSetBit(id + 1)) {
+         final String referencedClass = symbols.nameOf(id);
+         if (isJavaPlatformClass(referencedClass)) {
             if (isVerbose) {
-               log.info("Ignoring transitive dependency artifact: " + transDep);
+               log.info("Ignoring referenced class of the Java platform: " + AbstractClassAnalyzer.toClassName(referencedClass));
+            }
+         } else {
+            remainingClasses.set(id);
+         }
+      }
+
+      final List<Artifact> transDeps = getTransitiveDependenciesWithClasses();
+      sortByLikelihoodToDeclare(transDeps, symbols.namesOf(remainingClasses));
+
+      // process the dependencies in batches of the size of the thread pool until all classes are attributed
+      int scannedTransDeps = 0;
+      while (!remainingClasses.isEmpty() && scannedTransDeps < transDeps.size()) {
+         throwIfCancelled();
+         metrics.startPhase(ScanMetrics.Phase.TRANSITIVE_DEPENDENCY_INDEXING);
+         final List<Artifact> batch = transDeps.subList(scannedTransDeps, Math.min(scannedTransDeps + threads, transDeps.size()));
+         resolveArtifacts(batch);
+         final var tasks = new ArrayList<Callable<ArtifactClasses>>(batch.size());
+         for (final Artifact transDep : batch) {
+            tasks.add(() -> scanTransitiveDependency(transDep));
+         }
+         final List<Set<String>> classesDeclaredByBatch = materializeDeclaredClasses(batch, invokeAllOrFail(tasks), symbols.namesOf(
+            remainingClasses));
+         metrics.startPhase(ScanMetrics.Phase.MATCHING);
+         for (int i = 0; i < batch.size(); i++) {
+            final BitSet usedClasses = getDeclaredClasses(symbols, remainingClasses, classesDeclaredByBatch.get(i));
+            if (!usedClasses.isEmpty()) {
+               result.usedClassesOfTransitiveDependencies.put(batch.get(i), new HashSet<>(symbols.namesOf(usedClasses)));
+               remainingClasses.andNot(usedClasses);
             }
-            continue;
          }
+         scannedTransDeps += batch.size();
 
-         if (isVerbose) {
-            log.info("Resolving transitive dependency: " + transDep);
+         if (cancellation != null && cancellation.cancelOnUsedTransitiveDependencies && result.hasDirectlyUsedTransitiveDependencies()) {
+            final Entry<Artifact, Set<String>> usage = result.usedClassesOfTransitiveDependencies.entrySet().iterator().next();
+            cancellation.cancel(MavenUtils.toString(project) + " directly uses class " + AbstractClassAnalyzer.toClassName(usage.getValue()
+               .iterator().next()) + " of transitive dependency " + usage.getKey());
+            result.isPartial = scannedTransDeps < transDeps.size();
+            break;
+         }
+      }
+
+      log.info(" => Scanned " + scannedTransDeps + " of " + Pluralized.dependencies(transDeps.size(), "transitive") + ".");
+      if (isVerbose) {
+         symbols.namesOf(remainingClasses).forEach(referencedClass -> log.info("No transitive dependency declares referenced class: "
+               + AbstractClassAnalyzer.toClassName(referencedClass)));
+      }
+   }
+
+   /**
+    * Computes a fingerprint of all inputs of {@link #scan(boolean, boolean)}: the paths, sizes and modification times of the
+    * project's class files, the coordinates of the direct and transitive dependencies, the configuration affecting the result and the
+    * version of the Java runtime, which determines the platform classes excluded from the analysis. Since released artifacts are
+    * immutable, only the files of snapshot dependencies and the class files of reactor projects are taken into account.
+    *
+    * @return a hex encoded SHA-256 hash
+    */
+   String computeInputFingerprint(final boolean checkForUnusedDependencies, final boolean checkForUsedTransitiveDependencies)
+         throws MojoExecutionException {
+      final MessageDigest digest;
+      try {
+         digest = MessageDigest.getInstance("SHA-256");
+      } catch (final NoSuchAlgorithmException ex) {
+         throw new IllegalStateException(ex);
+      }
+
+      updateDigest(digest, "plugin=" + mojo.getPluginVersion());
+      updateDigest(digest, "java=" + System.getProperty("java.version") + "|" + System.getProperty("java.vm.version"));
+      updateDigest(digest, "analyzerEngine=" + analyzerEngine);
+      updateDigest(digest, "checkForUnusedDependencies=" + checkForUnusedDependencies);
+      updateDigest(digest, "checkForUsedTransitiveDependencies=" + checkForUsedTransitiveDependencies);
+      updateDigest(digest, "demandDrivenTransitiveScan=" + demandDrivenTransitiveScan);
+      try {
+         digestClassFiles(digest, Paths.get(project.getBuild().getOutputDirectory()));
+         digestArtifacts(digest, "direct", MavenUtils.withoutRuntimeAndTestScoped(mojo.getDirectDependencies(project)));
+         if (checkForUsedTransitiveDependencies) {
+            digestArtifacts(digest, "transitive", MavenUtils.withoutRuntimeAndTestScoped(mojo.getTransitiveDependencies(project)));
          }
-         mojo.resolveArtifact(transDep);
+      } catch (final IOException ex) {
+         throw new MojoExecutionException("Computing the fingerprint of the analysis inputs failed with: " + ex.getMessage(), ex);
+      }
+      return String.format("%064x", new BigInteger(1, digest.digest()));
+   }
 
-         final File jarFile = transDep.getFile();
-         if (jarFile == null) {
-            continue;
+   private void digestArtifacts(final MessageDigest digest, final String kind, final Collection<Artifact> artifacts) throws IOException,
+         MojoExecutionException {
+      final var sortedArtifacts = new ArrayList<>(artifacts);
+      sortedArtifacts.sort(Comparator.comparing(Artifact::getId));
+
+      final var snapshotArtifacts = new ArrayList<Artifact>();
+      for (final Artifact artifact : sortedArtifacts) {
+         if (artifact.isSnapshot() && isArtifactWithClasses(artifact)) {
+            snapshotArtifacts.add(artifact);
          }
+      }
+      resolveArtifacts(snapshotArtifacts);
 
-         try {
-            if (isVerbose) {
-               log.info("Collecting declared classes of transitive dependency: " + transDep);
-            }
-            final Set<String> classesDeclaredByArtifactr = scanArtifactForDeclaredClasses(transDep);
-            for (final String declaredClass : classesDeclaredByArtifactr) {
-               classesDeclaredByTransitiveDependencies.put(declaredClass, transDep);
+      for (final Artifact artifact : sortedArtifacts) {
+         updateDigest(digest, kind + "=" + artifact.getId() + ":" + artifact.getScope());
+
+         final MavenProject reactorProject = getReactorProject(artifact);
+         if (reactorProject != null) {
+            digestClassFiles(digest, Paths.get(reactorProject.getBuild().getOutputDirectory()));
+         } else if (snapshotArtifacts.contains(artifact)) {
+            final File file = artifact.getFile();
+            if (file != null && file.isFile()) {
+               final var attrs = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+               updateDigest(digest, attrs.size() + ":" + attrs.lastModifiedTime().toMillis());
             }
-         } catch (final IOException ex) {
-            throw new MojoExecutionException("Analyzing transitive dependency " + transDep + " failed with: " + ex.getMessage(), ex);
          }
       }
-      return classesDeclaredByTransitiveDependencies;
    }
 
+   /**
+    * @return the metrics of all work performed by this analyzer so far
+    */
+   ScanMetrics getMetrics() {
+      return metrics;
+   }
+
+   MavenProject getProject() {
+      return project;
+   }
+
+   /**
+    * @return null if the given artifact is not a project of the current reactor
+    */
    private MavenProject getReactorProject(final Artifact artifact) {
-      for (final MavenProject p : mojo.getReactorProjects()) {
-         if (p.getGroupId().equals(artifact.getGroupId()) //
-               && p.getArtifactId().equals(artifact.getArtifactId()) //
-               && p.getVersion().equals(artifact.getVersion()) //
-         )
-            return p;
+      return reactorProjects.get(artifact.getGroupId() + ":" + artifact.getArtifactId() + ":" + artifact.getVersion());
+   }
+
+   private List<Artifact> getTransitiveDependenciesWithClasses() {
+      final var transDeps = new ArrayList<Artifact>();
+      for (final Artifact transDep : MavenUtils.withoutRuntimeAndTestScoped(mojo.getTransitiveDependencies(project))) {
+         if (isArtifactWithClasses(transDep)) {
+            transDeps.add(transDep);
+         } else if (isVerbose) {
+            log.info("Ignoring transitive dependency artifact: " + transDep);
+         }
       }
-      throw new NoSuchElementException("No project in reactor found matching " + artifact);
+      return transDeps;
    }
 
+   /**
+    * Executes the given tasks using up to {@link #threads} threads of the plugin-wide scheduler including the calling thread. With a
+    * single thread the tasks are executed by the calling thread.
+    *
+    * @return the results in the order of the given tasks
+    */
+   private <T> List<T> invokeAll(final List<Callable<T>> tasks) throws ExecutionException, InterruptedIOException {
+      final var results = new ArrayList<T>(tasks.size());
+      if (schedulerQueue == null || tasks.size() < 2) {
+         for (final Callable<T> task : tasks) {
+            try {
+               results.add(task.call());
+            } catch (final Exception ex) {
+               throw new ExecutionException(ex);
+            }
+         }
+         return results;
+      }
+
+      final var futures = new ArrayList<Future<T>>(tasks.size());
+      try {
+         for (final Callable<T> task : tasks) {
+            futures.add(schedulerQueue.submit(task));
+         }
+         for (final Future<T> future : futures) {
+            results.add(schedulerQueue.await(future));
+         }
+         return results;
+      } catch (final InterruptedException ex) {
+         Thread.currentThread().interrupt();
+         throw new InterruptedIOException("Waiting for worker threads was interrupted.");
+      } finally {
+         // skip the tasks still pending after a failure
+         for (final Future<T> future : futures) {
+            future.cancel(false);
+         }
+      }
+   }
+
+   private <T> List<T> invokeAllOrFail(final List<Callable<T>> tasks) throws MojoExecutionException {
+      try {
+         return invokeAll(tasks);
+      } catch (final ExecutionException ex) {
+         final Throwable cause = ex.getCause();
+         if (cause instanceof MojoExecutionException)
+            throw (MojoExecutionException) cause;
+         throw new MojoExecutionException(cause.getMessage(), cause);
+      } catch (final InterruptedIOException ex) {
+         throw new MojoExecutionException(ex.getMessage(), ex);
+      }
+   }
+
+   /**
+    * @param className internal class name, e.g. <code>com/acme/Outer$1</code>
+    */
    boolean isAnonymousInnerClass(final String className) {
-      // inner classes are enumerated in class files TheClass.1, TheClass.2 etc.
-      return Strings.isNumeric(Strings.substringAfterLast(className, "."));
+      // anonymous inner classes are enumerated in class files TheClass$1, TheClass$2 etc.
+      if (className == null)
+         return false;
+      final int lastDollar = className.lastIndexOf('$');
+      if (lastDollar < 0 || lastDollar == className.length() - 1)
+         return false;
+      for (int i = lastDollar + 1; i < className.length(); i++) {
+         final char ch = className.charAt(i);
+         if (ch < '0' || ch > '9')
+            return false;
+      }
+      return true;
    }
 
    boolean isArtifactWithClasses(final Artifact artifact) {
@@ -139,12 +527,112 @@ boolean isArtifactWithClasses(final Artifact artifact) {
       return "jar".equals(type) || "war".equals(type) || "ejb".equals(type);
    }
 
-   private boolean isReactorProject(final Artifact artifact) {
-      return mojo.getReactorProjects().stream().anyMatch(p -> //
-      p.getGroupId().equals(artifact.getGroupId()) //
-            && p.getArtifactId().equals(artifact.getArtifactId())//
-            && p.getVersion().equals(artifact.getVersion()) //
-      );
+   /**
+    * @param className internal class name, e.g. <code>java/util/Map$Entry</code>
+    * @return true if the given class belongs to a package of a module of the Java platform. On Java 9+ classes of such packages are
+    *         always loaded from the platform module, even if an artifact on the class path declares a class with the same name.
+    */
+   boolean isJavaPlatformClass(final String className) {
+      final int lastSlash = className.lastIndexOf('/');
+      return lastSlash > 0 && JAVA_PLATFORM_PACKAGES.contains(className.substring(0, lastSlash));
+   }
+
+   /**
+    * Materializes the names of the classes declared by all given artifacts that declare a package of any of the given referenced
+    * classes. Artifacts not sharing any package with the referenced classes cannot declare any of them, thus an empty set is
+    * returned for them without enumerating their classes.
+    *
+    * @return the declared classes in the order of the given artifacts
+    */
+   private List<Set<String>> materializeDeclaredClasses(final List<Artifact> artifacts, final List<ArtifactClasses> artifactsClasses,
+         final Collection<String> referencedClasses) throws MojoExecutionException {
+      final Set<String> referencedPackages = ArtifactClasses.getPackages(referencedClasses);
+      final var tasks = new ArrayList<Callable<Set<String>>>(artifacts.size());
+      for (int i = 0; i < artifacts.size(); i++) {
+         final Artifact artifact = artifacts.get(i);
+         final ArtifactClasses artifactClasses = artifactsClasses.get(i);
+         if (artifactClasses.isMaterialized()) {
+            tasks.add(() -> artifactClasses.classes);
+         } else if (artifactClasses.declaresAnyPackageOf(referencedPackages)) {
+            tasks.add(() -> {
+               throwIfCancelled();
+               return materializeDeclaredClasses(artifact);
+            });
+         } else {
+            if (isVerbose) {
+               log.info("Skipping dependency without referenced packages: " + artifact);
+            }
+            tasks.add(Collections::emptySet);
+         }
+      }
+      return invokeAllOrFail(tasks);
+   }
+
+   /**
+    * @return the internal names of all classes declared by the given artifact
+    */
+   private Set<String> materializeDeclaredClasses(final Artifact artifact) throws MojoExecutionException {
+      try {
+         return scanArtifactForDeclaredClasses(artifact, true).classes;
+      } catch (final IOException ex) {
+         throw new MojoExecutionException("Analyzing dependency " + artifact + " failed with: " + ex.getMessage(), ex);
+      }
+   }
+
+   /**
+    * @return a pipeline resolving the artifacts with {@link #resolveArtifacts(List)} and scanning them with the given scanner using up
+    *         to {@link #threads} threads of the plugin-wide scheduler
+    */
+   private <T> ResolveScanPipeline<T> newResolveScanPipeline(final ResolveScanPipeline.Scanner<T> scanner) {
+      // keep enough resolved artifacts queued so that the workers do not run dry while the next chunk is resolved
+      return new ResolveScanPipeline<>(schedulerQueue, threads * 2, this::resolveArtifacts, scanner);
+   }
+
+   /**
+    * Resolves all given artifacts that are not projects of the current reactor with a single request.
+    */
+   private void resolveArtifacts(final List<Artifact> artifacts) throws MojoExecutionException {
+      final var artifactsToResolve = new ArrayList<Artifact>(artifacts.size());
+      for (final Artifact artifact : artifacts) {
+         // the classes of reactor projects are taken from their output directories
+         if (!artifact.isResolved() && getReactorProject(artifact) == null && (reactorArtifactIndex == null || !reactorArtifactIndex
+            .lookupFile(artifact))) {
+            artifactsToResolve.add(artifact);
+         }
+      }
+      final ScanMetrics.Counters counters = metrics.get(ScanMetrics.Phase.RESOLUTION);
+      counters.cacheHits.add(artifacts.size() - artifactsToResolve.size());
+      counters.cacheMisses.add(artifactsToResolve.size());
+      if (artifactsToResolve.isEmpty())
+         return;
+
+      if (isVerbose) {
+         log.info("Resolving " + Pluralized.dependencies(artifactsToResolve.size()) + "...");
+         artifactsToResolve.forEach(artifact -> log.info(" - " + artifact));
+      }
+      final long startNanos = System.nanoTime();
+      mojo.resolveArtifacts(project, artifactsToResolve);
+      counters.wallTimeNanos.add(System.nanoTime() - startNanos);
+      if (reactorArtifactIndex != null) {
+         artifactsToResolve.forEach(reactorArtifactIndex::putFile);
+      }
+   }
+
+   private ArtifactClasses scanTransitiveDependency(final Artifact transDep) throws MojoExecutionException {
+      throwIfCancelled();
+
+      final File jarFile = transDep.getFile();
+      if (jarFile == null)
+         return ArtifactClasses.EMPTY;
+
+      try {
+         if (isVerbose) {
+            log.info("Collecting declared packages of transitive dependency: " + transDep);
+         }
+         return scanArtifactForDeclaredClasses(transDep, false);
+      } catch (final IOException ex) {
+         throw new MojoExecutionException("Analyzing transitive dependency " + transDep + " failed with: " + ex.getMessage(), ex);
+      }
    }
 
    public ScanResult scan(final boolean checkForUnusedDependencies, final boolean checkForUsedTransitiveDependencies)
@@ -154,66 +642,114 @@ public ScanResult scan(final boolean checkForUnusedDependencies, final boolean c
       if (!isArtifactWithClasses(project.getArtifact()))
          return result;
 
+      final var event = new ModuleScanEvent();
+      event.begin();
+      boolean isCompleted = false;
+      try {
+         scan(result, checkForUnusedDependencies, checkForUsedTransitiveDependencies);
+         isCompleted = true;
+      } finally {
+         metrics.endPhase();
+         event.end();
+         if (event.shouldCommit()) {
+            final ScanMetrics.Counters total = metrics.getTotal();
+            event.module = metrics.module;
+            event.classFilesParsed = total.classFilesParsed.sum();
+            event.jarEntriesRead = total.jarEntriesRead.sum();
+            event.bytesRead = total.bytesRead.sum();
+            event.cacheHits = total.cacheHits.sum();
+            event.cacheMisses = total.cacheMisses.sum();
+            event.partial = !isCompleted || result.isPartial;
+            event.commit();
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Performs the phases of the analysis, see {@link ScanMetrics.Phase}, and records the findings in the given result.
+    */
+   private void scan(final ScanResult result, final boolean checkForUnusedDependencies, final boolean checkForUsedTransitiveDependencies)
+         throws MojoExecutionException {
+
       /*
        * collect classes declared by the current project
        */
+      metrics.startPhase(ScanMetrics.Phase.OUTPUT_DIRECTORY_SCAN);
       final String logMsg = "Analyzing classes found in " + project.getBuild().getOutputDirectory();
       log.info(logMsg + "...");
-      final Set<String> referencedClasses; // classes referenced by current project
+      final var symbols = new SymbolTable();
+      final BitSet referencedClasses; // classes referenced by current project
       try {
-         referencedClasses = scanDirectoryForDeclaredAndReferencedClasses(Paths.get(project.getBuild().getOutputDirectory())).get2();
+         final ClassFileCache classFileCache = mojo.isUseClassFileCache() //
+               ? new ClassFileCache(Paths.get(project.getBuild().getDirectory(), "depcheck-maven-plugin", "class-files.cache"),
+                  analyzerEngine, mojo.getPluginVersion(), log)
+               : null;
+         referencedClasses = scanDirectoryForDeclaredAndReferencedClasses(Paths.get(project.getBuild().getOutputDirectory()), symbols,
+            classFileCache).get2();
       } catch (final IOException ex) {
          throw new MojoExecutionException(logMsg + " failed with: " + ex.getClass().getSimpleName() + " - " + ex.getMessage(), ex);
       }
-      log.info(" => References to " + Pluralized.classes(referencedClasses.size(), "external") + " found.");
+      throwIfCancelled();
+      log.info(" => References to " + Pluralized.classes(referencedClasses.cardinality(), "external") + " found.");
 
       /*
        * collect classes declared by direct dependencies
        */
       log.info("Analyzing classes of direct dependencies...");
-      final Set<Artifact> directDeps = MavenUtils.withoutRuntimeAndTestScoped(mojo.getDirectDependencies());
-      int directDepsClassCount = 0;
+      metrics.startPhase(ScanMetrics.Phase.DIRECT_DEPENDENCY_INDEXING);
+      final Set<Artifact> directDeps = MavenUtils.withoutRuntimeAndTestScoped(mojo.getDirectDependencies(project));
+      final var directDepsWithClasses = new ArrayList<Artifact>();
       for (final Artifact directDep : directDeps) {
+         if (isArtifactWithClasses(directDep)) {
+            directDepsWithClasses.add(directDep);
+         } else if (isVerbose) {
+            log.info("Ignoring direct dependency: " + directDep);
+         }
+      }
 
-         if (!isArtifactWithClasses(directDep)) {
+      // resolve upcoming artifacts while the packages of already resolved ones are scanned
+      final List<ArtifactClasses> packagesDeclaredByDirectDeps = newResolveScanPipeline(directDep -> {
+         throwIfCancelled();
+         try {
             if (isVerbose) {
-               log.info("Ignoring direct dependency: " + directDep);
+               log.info("Collecting declared packages of direct dependency: " + directDep);
             }
-            continue;
-         }
-
-         if (isVerbose) {
-            log.info("Resolving direct dependency: " + directDep);
+            return scanArtifactForDeclaredClasses(directDep, false);
+         } catch (final IOException ex) {
+            throw new MojoExecutionException("Analyzing dependency " + directDep + " failed with: " + ex.getMessage(), ex);
          }
-         mojo.resolveArtifact(directDep);
+      }).process(directDepsWithClasses);
+      int directDepsClassCount = 0;
+      for (final ArtifactClasses artifactClasses : packagesDeclaredByDirectDeps) {
+         directDepsClassCount += artifactClasses.classCount;
+      }
+      final List<Set<String>> classesDeclaredByDirectDeps = materializeDeclaredClasses(directDepsWithClasses, packagesDeclaredByDirectDeps,
+         symbols.namesOf(referencedClasses));
 
-         try {
+      // remove classes declared in direct dependencies from the referenced classes collection
+      // this way we will only have transitively referenced classes in that collection at the end.
+      // if multiple direct dependencies declare the same class, the first dependency wins
+      metrics.startPhase(ScanMetrics.Phase.MATCHING);
+      final var usedDirectDeps = new HashSet<Artifact>();
+      for (int i = 0; i < directDepsWithClasses.size() && !referencedClasses.isEmpty(); i++) {
+         final BitSet usedClasses = getDeclaredClasses(symbols, referencedClasses, classesDeclaredByDirectDeps.get(i));
+         if (!usedClasses.isEmpty()) {
+            final Artifact directDep = directDepsWithClasses.get(i);
+            usedDirectDeps.add(directDep);
             if (isVerbose) {
-               log.info("Collecting declared classes of direct dependency: " + directDep);
-            }
-            final Set<String> classesDeclaredByArtifact = scanArtifactForDeclaredClasses(directDep);
-            directDepsClassCount += classesDeclaredByArtifact.size();
-            boolean isDependencyUsed = false;
-
-            // remove classes declared in direct dependencies from the referenced classes collection
-            // this way we will only have transitively referenced classes in that collection at the end
-            for (final Iterator<String> it = referencedClasses.iterator(); it.hasNext();) {
-               final String referencedClass = it.next();
-               if (classesDeclaredByArtifact.contains(referencedClass)) {
-                  isDependencyUsed = true;
-
-                  if (isVerbose) {
-                     log.info(" - referenced class found: " + referencedClass);
-                  }
-                  it.remove();
-               }
+               symbols.namesOf(usedClasses).forEach(referencedClass -> log.info(" - referenced class found: " + AbstractClassAnalyzer
+                  .toClassName(referencedClass) + " (" + directDep + ")"));
             }
+            referencedClasses.andNot(usedClasses);
+         }
+      }
 
-            if (checkForUnusedDependencies && !isDependencyUsed) {
+      if (checkForUnusedDependencies) {
+         for (final Artifact directDep : directDepsWithClasses) {
+            if (!usedDirectDeps.contains(directDep)) {
                result.unusedDirectDependencies.add(directDep);
             }
-         } catch (final Exception ex) {
-            throw new MojoExecutionException("Analyzing dependency " + directDep + " failed with: " + ex.getMessage(), ex);
          }
       }
       log.info(" => Found " + Pluralized.dependencies(directDeps.size(), "direct") + " with " + Pluralized.classes(directDepsClassCount)
@@ -227,11 +763,22 @@ public ScanResult scan(final boolean checkForUnusedDependencies, final boolean c
          }
       }
 
+      /*
+       * in fail-fast mode stop here if the found unused dependencies fail the build anyway
+       */
+      if (cancellation != null && cancellation.cancelOnUnusedDependencies && result.hasUnusedDirectDependencies()) {
+         cancellation.cancel(MavenUtils.toString(project) + " declares unused direct dependency " + result.unusedDirectDependencies
+            .iterator().next());
+         result.isPartial = checkForUsedTransitiveDependencies && !referencedClasses.isEmpty();
+         return;
+      }
+      throwIfCancelled();
+
       /*
        * early exit if all referenced classes are declared by direct dependencies
        */
       if (referencedClasses.isEmpty())
-         return result;
+         return;
 
       /*
        * analyze the JAR files of transitively referenced artifacts
@@ -239,23 +786,10 @@ public ScanResult scan(final boolean checkForUnusedDependencies, final boolean c
       if (checkForUsedTransitiveDependencies) {
          log.info("Analyzing classes of transitive dependencies...");
 
-         final Map<String, Artifact> classesDeclaredByTransitiveDependencies = getClassesDeclaredByTransitiveDependencies();
-         log.info(" => Found " + Pluralized.dependencies(classesDeclaredByTransitiveDependencies.size(), "transitive") + ".");
-
-         if (!classesDeclaredByTransitiveDependencies.isEmpty()) {
-            // iterate over the transitively referenced classes and try to find the corresponding artifact
-            for (final String referencedClass : referencedClasses) {
-               final Artifact transDepArtifact = classesDeclaredByTransitiveDependencies.get(referencedClass);
-               if (transDepArtifact == null) {
-                  if (isVerbose) {
-                     log.info("No transitive dependency declares referenced class: " + referencedClass);
-                  }
-               } else {
-                  result.usedClassesOfTransitiveDependencies //
-                     .computeIfAbsent(transDepArtifact, key -> new HashSet<>()) //
-                     .add(referencedClass);
-               }
-            }
+         if (demandDrivenTransitiveScan) {
+            attributeClassesOfTransitiveDependenciesOnDemand(symbols, referencedClasses, result);
+         } else {
+            attributeClassesOfTransitiveDependencies(symbols, referencedClasses, result);
          }
 
          if (result.usedClassesOfTransitiveDependencies.isEmpty()) {
@@ -267,125 +801,357 @@ public ScanResult scan(final boolean checkForUnusedDependencies, final boolean c
                "transitive") + " found.");
          }
       }
-
-      return result;
    }
 
    /**
-    * @return the fully qualified name of all declared classes e.g. com.acme.MyClass
+    * @param withClasses if false, the names of the declared classes are only materialized if this comes at no additional cost
+    * @return the packages and internal names of all declared classes e.g. com/acme/MyClass
     */
-   private Set<String> scanArtifactForDeclaredClasses(final Artifact artifactWithJar) throws IOException {
+   ArtifactClasses scanArtifactForDeclaredClasses(final Artifact artifactWithJar, final boolean withClasses) throws IOException {
 
-      if (isReactorProject(artifactWithJar)) {
-         final MavenProject project = getReactorProject(artifactWithJar);
-         return scanDirectoryForDeclaredAndReferencedClasses(Paths.get(project.getBuild().getOutputDirectory())).get1();
+      final MavenProject reactorProject = getReactorProject(artifactWithJar);
+      if (reactorProject != null)
+         return scanReactorProjectForDeclaredClasses(reactorProject);
+
+      final File jarFile = artifactWithJar.getFile();
+      if (jarFile == null)
+         return ArtifactClasses.EMPTY;
+
+      final var event = new JarEnumerationEvent();
+      event.begin();
+      final var counters = new ScanMetrics.Counters();
+      ArtifactClasses declaredClasses = reactorArtifactIndex == null ? null : reactorArtifactIndex.getDeclaredClasses(jarFile, withClasses);
+      if (declaredClasses == null) {
+         declaredClasses = scanJarForDeclaredClasses(artifactWithJar, jarFile, withClasses, counters);
+         if (reactorArtifactIndex != null) {
+            reactorArtifactIndex.putDeclaredClasses(jarFile, declaredClasses);
+         }
+      } else {
+         counters.cacheHits.increment();
       }
+      counters.addTo(metrics.getActive());
 
-      if (artifactWithJar.getFile() == null)
-         return Collections.emptySet();
+      event.end();
+      if (event.shouldCommit()) {
+         event.module = metrics.module;
+         event.artifact = artifactWithJar.toString();
+         event.cacheHit = counters.cacheHits.sum() > 0;
+         event.withClasses = withClasses;
+         event.jarEntriesRead = counters.jarEntriesRead.sum();
+         event.bytesRead = counters.bytesRead.sum();
+         event.classCount = declaredClasses.classCount;
+         event.commit();
+      }
+      return declaredClasses;
+   }
 
-      try (var jar = new JarFile(artifactWithJar.getFile())) {
-         final var classesDeclaredInJar = new HashSet<String>();
-         // iterate over the jar's entries
-         for (final JarEntry jarEntry : Enumerations.toIterable(jar.entries())) {
+   /**
+    * Looks up the classes declared by the given JAR file in the JVM-wide cache and the persistent index before enumerating the JAR file.
+    *
+    * @param counters the counters the cache hits and misses and the read JAR entries and bytes are added to
+    */
+   private ArtifactClasses scanJarForDeclaredClasses(final Artifact artifactWithJar, final File jarFile, final boolean withClasses,
+         final ScanMetrics.Counters counters) throws IOException {
+      ArtifactClasses declaredClasses = artifactCache == null ? null : artifactCache.get(jarFile);
+      if (declaredClasses != null && (!withClasses || declaredClasses.isMaterialized())) {
+         counters.cacheHits.increment();
+         if (isVerbose) {
+            log.info(" => Found " + Pluralized.classes(declaredClasses.classCount) + " in shared artifact cache");
+         }
+         return declaredClasses;
+      }
 
-            // ignore directory nodes
-            if (jarEntry.isDirectory()) {
-               continue;
+      if (artifactIndex != null) {
+         declaredClasses = artifactIndex.get(artifactWithJar, withClasses);
+         if (declaredClasses != null) {
+            counters.cacheHits.increment();
+            if (isVerbose) {
+               log.info(" => Found " + Pluralized.classes(declaredClasses.classCount) + " in artifact index");
             }
+            return artifactCache == null ? declaredClasses : artifactCache.put(jarFile, declaredClasses);
+         }
+      }
 
-            final String fileName = jarEntry.getName();
+      counters.cacheMisses.increment();
+      declaredClasses = withClasses ? ArtifactClasses.of(JarClassNamesReader.readClassNames(jarFile, counters))
+            : JarClassNamesReader.readPackages(jarFile, counters);
+      if (isVerbose) {
+         log.info(" => Found " + Pluralized.classes(declaredClasses.classCount) + " in " + declaredClasses.packages.size()
+               + " packages of inspected JAR file");
+      }
+      if (artifactIndex != null) {
+         artifactIndex.put(artifactWithJar, declaredClasses);
+      }
+      return artifactCache == null ? declaredClasses : artifactCache.put(jarFile, declaredClasses);
+   }
 
-            // ignore non-class files
-            if (!fileName.endsWith(".class")) {
-               continue;
-            }
+   /**
+    * Parses the given class file using the given analyzer.
+    *
+    * @return the byte code of the class file
+    */
+   private byte[] scanClassFile(final Path classFile, final AbstractClassAnalyzer analyzer) throws IOException {
+      if (isVerbose) {
+         log.info(" -> Analyzing class file: " + classFile);
+      }
 
-            String className = fileName;
-            className = Strings.substringBeforeLast(className, ".class");
-            className = Strings.replace(className, '/', '.');
-            className = Strings.replace(className, '$', '.');
+      final byte[] classByteCode = Files.readAllBytes(classFile);
+      analyzer.scan(classByteCode, analyzerEngine);
 
-            if (isAnonymousInnerClass(className)) {
-               continue;
+      final ScanMetrics.Counters counters = metrics.get(ScanMetrics.Phase.OUTPUT_DIRECTORY_SCAN);
+      counters.classFilesParsed.increment();
+      counters.bytesRead.add(classByteCode.length);
+      return classByteCode;
+   }
+
+   /**
+    * Distributes the class files found in the given directory in batches to the worker threads. Each batch collects the declared and
+    * referenced classes in its own sets which are merged afterwards, thus the result is independent of the number of threads.
+    *
+    * @param cache if not null, only class files without valid cache entry are parsed
+    */
+   private void scanClassFiles(final Path classDirectory, final SymbolTable symbols, final BitSet declaredClasses,
+         final BitSet referencedClasses, final ClassFileCache cache) throws IOException {
+      final var classFiles = new LinkedHashMap<Path, BasicFileAttributes>();
+      Files.walkFileTree(classDirectory, new SimpleFileVisitor<>() {
+         @Override
+         public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+            if (attrs.isRegularFile() && file.toString().endsWith(".class")) {
+               classFiles.put(file, attrs);
             }
+            return FileVisitResult.CONTINUE;
+         }
+      });
 
-            // if (isVerbose) log.info("Found class: " + className);
-            classesDeclaredInJar.add(className);
+      final List<Path> classFilesToScan;
+      if (cache == null) {
+         classFilesToScan = new ArrayList<>(classFiles.keySet());
+      } else {
+         cache.load();
+         classFilesToScan = new ArrayList<>();
+         for (final Entry<Path, BasicFileAttributes> classFile : classFiles.entrySet()) {
+            final CachedClassFile cached = cache.get(classDirectory.relativize(classFile.getKey()).toString(), classFile.getKey(), classFile
+               .getValue());
+            if (cached == null) {
+               classFilesToScan.add(classFile.getKey());
+            } else {
+               declaredClasses.set(symbols.intern(cached.declaredClass));
+               for (final String referencedClass : cached.referencedClasses) {
+                  referencedClasses.set(symbols.intern(referencedClass));
+               }
+            }
          }
-         if (isVerbose) {
-            log.info(" => Found " + Pluralized.classes(classesDeclaredInJar.size()) + " in inspected JAR file");
+         log.info(" => Reusing cached references of " + (classFiles.size() - classFilesToScan.size()) + " of " + Pluralized.classes(
+            classFiles.size()) + ".");
+         final ScanMetrics.Counters counters = metrics.get(ScanMetrics.Phase.OUTPUT_DIRECTORY_SCAN);
+         counters.cacheHits.add(classFiles.size() - classFilesToScan.size());
+         counters.cacheMisses.add(classFilesToScan.size());
+      }
+
+      // use more batches than threads so that workers finishing early can pick up remaining work
+      final int batchSize = Math.max(1, (classFilesToScan.size() + threads * 4 - 1) / (threads * 4));
+      final var tasks = new ArrayList<Callable<Tuple2<BitSet, BitSet>>>();
+      for (int i = 0; i < classFilesToScan.size(); i += batchSize) {
+         final List<Path> batch = classFilesToScan.subList(i, Math.min(i + batchSize, classFilesToScan.size()));
+         tasks.add(() -> {
+            final var event = new ClassFileBatchEvent();
+            event.begin();
+            int classFilesParsed = 0;
+            long bytesRead = 0;
+            final var declaredClassesOfBatch = new BitSet();
+            final var referencedClassesOfBatch = new BitSet();
+            final var declaredClassOfFile = new String[1];
+            final var referencedClassesOfFile = new BitSet();
+
+            // one analyzer per batch, so its visitors and memoized descriptors are reused for all class files
+            final var analyzer = new AbstractClassAnalyzer(Opcodes.ASM9) {
+               @Override
+               protected void onClassName(final String nameOfReferencedClass) {
+                  declaredClassOfFile[0] = nameOfReferencedClass;
+                  declaredClassesOfBatch.set(symbols.intern(nameOfReferencedClass));
+               }
+
+               @Override
+               protected void onClassReference(final String nameOfReferencedClass) {
+                  if (!isAnonymousInnerClass(nameOfReferencedClass)) {
+                     referencedClassesOfFile.set(symbols.intern(nameOfReferencedClass));
+                  }
+               }
+            };
+            for (final Path classFile : batch) {
+               // the caller checks the token after all batches completed
+               if (cancellation != null && cancellation.isCancelled()) {
+                  break;
+               }
+               referencedClassesOfFile.clear();
+               final byte[] classByteCode = scanClassFile(classFile, analyzer);
+               classFilesParsed++;
+               bytesRead += classByteCode.length;
+               if (cache != null) {
+                  cache.put(classDirectory.relativize(classFile).toString(), new CachedClassFile(classFiles.get(classFile), ClassFileCache
+                     .checksumOf(classByteCode), declaredClassOfFile[0], symbols.namesOf(referencedClassesOfFile)));
+               }
+               referencedClassesOfBatch.or(referencedClassesOfFile);
+            }
+
+            event.end();
+            if (event.shouldCommit()) {
+               event.module = metrics.module;
+               event.analyzerEngine = analyzerEngine.name();
+               event.classFilesParsed = classFilesParsed;
+               event.bytesRead = bytesRead;
+               event.commit();
+            }
+            return Tuple2.create(declaredClassesOfBatch, referencedClassesOfBatch);
+         });
+      }
+
+      try {
+         for (final Tuple2<BitSet, BitSet> batchResult : invokeAll(tasks)) {
+            declaredClasses.or(batchResult.get1());
+            referencedClasses.or(batchResult.get2());
          }
-         return classesDeclaredInJar;
+      } catch (final ExecutionException ex) {
+         final Throwable cause = ex.getCause();
+         if (cause instanceof IOException)
+            throw (IOException) cause;
+         if (cause instanceof RuntimeException)
+            throw (RuntimeException) cause;
+         throw new IOException(cause);
       }
+
+      if (cache != null) {
+         cache.save();
+      }
+   }
+
+   /**
+    * Scans a target directory for Java class files, parses them and extracts information about declared and referenced external classes.
+    *
+    * @param classDirectory directory containing java class files (*.class)
+    * @param symbols the symbol table the IDs of the declared and referenced classes are taken from
+    * @return IDs of all declared classes and of all referenced classes not declared in the given directory
+    */
+   Tuple2<BitSet, BitSet> scanDirectoryForDeclaredAndReferencedClasses(final Path classDirectory, final SymbolTable symbols)
+         throws IOException {
+      return scanDirectoryForDeclaredAndReferencedClasses(classDirectory, symbols, null);
    }
 
    /**
     * Scans a target directory for Java class files, parses them and extracts information about declared and referenced external classes.
     *
     * @param classDirectory directory containing java class files (*.class)
-    * @return declaredClasses fully qualified name of all declared/referenced classes e.g. com.acme.MyClass
+    * @param symbols the symbol table the IDs of the declared and referenced classes are taken from
+    * @param cache if not null, the cache providing the declared and referenced classes of unmodified class files
+    * @return IDs of all declared classes and of all referenced classes not declared in the given directory
     */
-   private Tuple2<Set<String>, Set<String>> scanDirectoryForDeclaredAndReferencedClasses(final Path classDirectory) throws IOException {
+   Tuple2<BitSet, BitSet> scanDirectoryForDeclaredAndReferencedClasses(final Path classDirectory, final SymbolTable symbols,
+         final ClassFileCache cache) throws IOException {
 
       if (isVerbose) {
          log.info("Analyzing output directory: " + classDirectory);
       }
 
+      final var declaredClasses = new BitSet(); // classes declared by current project
+      final var referencedClasses = new BitSet(); // classes referenced by current project
+
       if (!Files.exists(classDirectory)) {
          log.warn("Analyzed output directory [" + classDirectory + "] does not exist.");
-         return Tuple2.create(Collections.emptySet(), Collections.emptySet());
+         return Tuple2.create(declaredClasses, referencedClasses);
       }
 
-      final var declaredClasses = new HashSet<String>(); // classes declared by current project
-      final var referencedClasses = new HashSet<String>(); // classes referenced by current project
+      scanClassFiles(classDirectory, symbols, declaredClasses, referencedClasses, cache);
 
-      Files.walkFileTree(classDirectory, new SimpleFileVisitor<Path>() {
-         @Override
-         public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
-            // only consider Java class files
-            if (!file.toString().endsWith(".class"))
-               return FileVisitResult.CONTINUE;
+      /*
+       * remove self-declared classes from referenced classes collection
+       */
+      if (isVerbose) {
+         log.info("Filtering out references to self-declared classes");
+         final var selfReferencedClasses = (BitSet) referencedClasses.clone();
+         selfReferencedClasses.and(declaredClasses);
+         symbols.namesOf(selfReferencedClasses).forEach(referencedClass -> log.info(" - class: " + referencedClass));
+      }
+      referencedClasses.andNot(declaredClasses);
+      return Tuple2.create(declaredClasses, referencedClasses);
+   }
 
+   /**
+    * Determines the classes declared by the given reactor project from the paths of the class files in its output directory without
+    * parsing them. The result is memoized in the project's context for the whole build session since the output directory of a reactor
+    * project is complete by the time dependent projects are analyzed.
+    */
+   ArtifactClasses scanReactorProjectForDeclaredClasses(final MavenProject reactorProject) throws IOException {
+      synchronized (reactorProject) {
+         final Object memoized = reactorProject.getContextValue(DECLARED_CLASSES_CONTEXT_KEY);
+         if (memoized instanceof ArtifactClasses) {
+            metrics.getActive().cacheHits.increment();
             if (isVerbose) {
-               log.info(" -> Analyzing class file: " + file);
+               log.info(" => Found " + Pluralized.classes(((ArtifactClasses) memoized).classCount) + " in reactor project context");
             }
+            return (ArtifactClasses) memoized;
+         }
 
-            try (var classByteCode = new BufferedInputStream(Files.newInputStream(file))) {
-               new AbstractClassAnalyzer(Opcodes.ASM9) {
-                  @Override
-                  protected void onClassName(final String nameOfReferencedClass) {
-                     declaredClasses.add(nameOfReferencedClass);
-                  }
-
-                  @Override
-                  protected void onClassReference(final String nameOfReferencedClass) {
-                     if (!isAnonymousInnerClass(nameOfReferencedClass)) {
-                        referencedClasses.add(nameOfReferencedClass);
-                     }
-                  }
-               }.scan(classByteCode);
+         metrics.getActive().cacheMisses.increment();
+         final Path classDirectory = Paths.get(reactorProject.getBuild().getOutputDirectory());
+         final var declaredClasses = new HashSet<String>();
+         if (Files.exists(classDirectory)) {
+            try (Stream<Path> files = Files.walk(classDirectory)) {
+               files.filter(file -> file.toString().endsWith(".class") && Files.isRegularFile(file)).forEach(file -> {
+                  final String classFile = classDirectory.relativize(file).toString();
+                  declaredClasses.add(Strings.replace(Strings.substringBeforeLast(classFile, ".class"), File.separatorChar, '/'));
+               });
             }
+         } else {
+            log.warn("Output directory [" + classDirectory + "] of reactor project " + reactorProject.getId() + " does not exist.");
+         }
+         if (isVerbose) {
+            log.info(" => Found " + Pluralized.classes(declaredClasses.size()) + " in output directory of reactor project");
+         }
 
-            return FileVisitResult.CONTINUE;
+         final ArtifactClasses artifactClasses = ArtifactClasses.of(declaredClasses);
+         reactorProject.setContextValue(DECLARED_CLASSES_CONTEXT_KEY, artifactClasses);
+         return artifactClasses;
+      }
+   }
+
+   /**
+    * Sorts the given artifacts so that artifacts whose group ID shares the most leading package segments with the packages of the
+    * given classes come first, e.g. <code>org.apache.commons:commons-lang3</code> for <code>org/apache/commons/lang3/StringUtils</code>.
+    * Artifacts with the same score keep their relative order.
+    */
+   private void sortByLikelihoodToDeclare(final List<Artifact> artifacts, final Collection<String> classNames) {
+      final var packages = new HashSet<String>();
+      for (final String className : classNames) {
+         final int lastSlash = className.lastIndexOf('/');
+         if (lastSlash > 0) {
+            packages.add(className.substring(0, lastSlash + 1));
          }
-      });
+      }
 
-      /*
-       * remove self-declared classes from referenced classes collection
-       */
-      if (isVerbose) {
-         log.info("Filtering out references to self-declared classes");
-         for (final Iterator<String> it = referencedClasses.iterator(); it.hasNext();) {
-            final String referencedClass = it.next();
-            if (declaredClasses.contains(referencedClass)) {
-               log.info(" - class: " + referencedClass);
-               it.remove();
+      final var scores = new HashMap<Artifact, Integer>();
+      for (final Artifact artifact : artifacts) {
+         final String groupId = artifact.getGroupId().replace('.', '/') + "/";
+         int score = 0;
+         for (final String pkg : packages) {
+            // count the matching leading package segments, ignoring single segment matches like "org/" or "com/"
+            int matchingSegments = 0;
+            for (int i = 0, len = Math.min(pkg.length(), groupId.length()); i < len && pkg.charAt(i) == groupId.charAt(i); i++) {
+               if (pkg.charAt(i) == '/') {
+                  matchingSegments++;
+               }
+            }
+            if (matchingSegments > 1) {
+               score += matchingSegments;
             }
          }
-      } else {
-         referencedClasses.removeAll(declaredClasses);
+         scores.put(artifact, score);
+      }
+      artifacts.sort(Comparator.comparing(scores::get, Comparator.reverseOrder()));
+   }
+
+   private void throwIfCancelled() throws CancellationToken.CancelledException {
+      if (cancellation != null) {
+         cancellation.throwIfCancelled();
       }
-      return Tuple2.create(declaredClasses, referencedClasses);
    }
 }
@@ -23,7 +23,6 @@
 
 import com.google.common.io.Files;
 import com.vegardit.maven.plugin.depcheck.DepsAnalyzer.ScanResult;
-import com.vegardit.maven.util.AbstractMojo;
 import com.vegardit.maven.util.MavenUtils;
 
 import net.sf.jstuff.core.Strings;
@@ -44,7 +43,7 @@
    requiresDependencyCollection = ResolutionScope.COMPILE, //
    threadSafe = true //
 )
-public final class FixTransDepsMojo extends AbstractMojo {
+public final class FixTransDepsMojo extends AbstractDepsMojo {
 
    public static final String MAVEN_GOAL = "fix-trans-deps";
 
@@ -86,13 +85,15 @@ protected void executeAfterLastProject() throws MojoExecutionException, MojoFail
          fixPOMs(REACTOR_RESULTS);
       } finally {
          REACTOR_RESULTS.clear();
+         super.executeAfterLastProject();
       }
    }
 
    @Override
    protected void executeOnEachProject() throws MojoExecutionException {
-      final DepsAnalyzer.ScanResult result = new DepsAnalyzer(this).scan(false, true);
-      REACTOR_RESULTS.add(result);
+      final var analyzer = new DepsAnalyzer(this);
+      REACTOR_RESULTS.add(analyzer.scan(false, true));
+      recordMetrics(analyzer);
    }
 
    private boolean isMissingDependenciesTag(final String pomContent) {
@@ -0,0 +1,270 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.ZipException;
+
+/**
+ * Enumerates the class files of a JAR file by only reading its central directory.
+ *
+ * <p>
+ * In contrast to {@link java.util.jar.JarFile} neither the manifest is parsed nor signature verification is prepared, no
+ * {@link java.util.zip.ZipEntry} objects are created and internal class names are built directly from the raw bytes of the entry names.
+ * ZIP64 archives and archives with prepended data, e.g. executable JARs with a launch script, are supported.
+ * </p>
+ *
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+abstract class JarClassNamesReader {
+
+   @FunctionalInterface
+   private interface ClassEntryConsumer {
+
+      /**
+       * @param names buffer holding the entry name
+       * @param start index of the first byte of the entry name
+       * @param end index of the dot of the <code>.class</code> file extension
+       * @param lastSlash index of the last slash of the entry name or -1
+       * @param isASCII true if the entry name only consists of 7-bit ASCII characters
+       */
+      void accept(byte[] names, int start, int end, int lastSlash, boolean isASCII);
+   }
+
+   private static final int CENTRAL_DIR_HEADER_SIG = 0x0201_4b50;
+   private static final int CENTRAL_DIR_HEADER_SIZE = 46;
+   private static final byte[] CLASS_FILE_EXTENSION = ".class".getBytes(ISO_8859_1);
+   private static final int END_OF_CENTRAL_DIR_SIG = 0x0605_4b50;
+   private static final int END_OF_CENTRAL_DIR_SIZE = 22;
+   private static final int MAX_ARCHIVE_COMMENT_SIZE = 0xFFFF;
+   private static final int ZIP64_END_OF_CENTRAL_DIR_LOCATOR_SIG = 0x0706_4b50;
+   private static final int ZIP64_END_OF_CENTRAL_DIR_LOCATOR_SIZE = 20;
+   private static final int ZIP64_END_OF_CENTRAL_DIR_SIG = 0x0606_4b50;
+   private static final int ZIP64_END_OF_CENTRAL_DIR_SIZE = 56;
+
+   private static boolean endsWithClassFileExtension(final byte[] names, final int offset) {
+      for (int i = 0; i < CLASS_FILE_EXTENSION.length; i++) {
+         if (names[offset + i] != CLASS_FILE_EXTENSION[i])
+            return false;
+      }
+      return true;
+   }
+
+   /**
+    * Invokes the given consumer for each non-anonymous class file of the given JAR file.
+    *
+    * @param counters if not null, the number of read entries and bytes is added to these counters
+    */
+   private static void forEachClassEntry(final File jarFile, final ScanMetrics.Counters counters, final ClassEntryConsumer consumer)
+         throws IOException {
+      final byte[] centralDir = readCentralDirectory(jarFile, counters);
+
+      int pos = 0;
+      int entries = 0;
+      while (pos + CENTRAL_DIR_HEADER_SIZE <= centralDir.length && getInt(centralDir, pos) == CENTRAL_DIR_HEADER_SIG) {
+         entries++;
+         final int nameLength = getUnsignedShort(centralDir, pos + 28);
+         final int extraLength = getUnsignedShort(centralDir, pos + 30);
+         final int commentLength = getUnsignedShort(centralDir, pos + 32);
+         final int start = pos + CENTRAL_DIR_HEADER_SIZE;
+         final int end = start + nameLength - CLASS_FILE_EXTENSION.length;
+         pos = start + nameLength + extraLength + commentLength;
+         if (pos > centralDir.length)
+            throw new ZipException("Invalid central directory entry in " + jarFile);
+
+         if (end <= start || !endsWithClassFileExtension(centralDir, end)) {
+            continue;
+         }
+
+         int lastSlash = -1;
+         int lastSeparator = -1;
+         boolean isASCII = true;
+         for (int i = start; i < end; i++) {
+            final byte b = centralDir[i];
+            if (b == '/') {
+               lastSlash = i;
+               lastSeparator = i;
+            } else if (b == '$') {
+               lastSeparator = i;
+            } else if (b < 0) {
+               isASCII = false;
+            }
+         }
+
+         if (lastSeparator > -1 && isNumeric(centralDir, lastSeparator + 1, end)) {
+            continue; // anonymous inner class
+         }
+         consumer.accept(centralDir, start, end, lastSlash, isASCII);
+      }
+      if (counters != null) {
+         counters.jarEntriesRead.add(entries);
+      }
+   }
+
+   private static int getInt(final byte[] bytes, final int offset) {
+      return bytes[offset] & 0xFF //
+            | (bytes[offset + 1] & 0xFF) << 8 //
+            | (bytes[offset + 2] & 0xFF) << 16 //
+            | (bytes[offset + 3] & 0xFF) << 24;
+   }
+
+   private static int getUnsignedShort(final byte[] bytes, final int offset) {
+      return bytes[offset] & 0xFF | (bytes[offset + 1] & 0xFF) << 8;
+   }
+
+   private static boolean isNumeric(final byte[] bytes, final int start, final int end) {
+      if (start >= end)
+         return false;
+      for (int i = start; i < end; i++) {
+         if (bytes[i] < '0' || bytes[i] > '9')
+            return false;
+      }
+      return true;
+   }
+
+   private static String newString(final byte[] bytes, final int start, final int end, final boolean isASCII) {
+      // ISO-8859-1 allows the JVM to copy the bytes of ASCII names as is into a compact string
+      return new String(bytes, start, end - start, isASCII ? ISO_8859_1 : UTF_8);
+   }
+
+   /**
+    * Locates the central directory via the (ZIP64) end of central directory record and reads it completely into memory.
+    */
+   private static byte[] readCentralDirectory(final File jarFile, final ScanMetrics.Counters counters) throws IOException {
+      try (var channel = FileChannel.open(jarFile.toPath(), StandardOpenOption.READ)) {
+         final long fileSize = channel.size();
+         if (fileSize < END_OF_CENTRAL_DIR_SIZE)
+            throw new ZipException("Not a ZIP file: " + jarFile);
+
+         // the end of central directory record is located at the end of the file, followed by an archive comment of up to 64KB
+         final int tailSize = (int) Math.min(fileSize, END_OF_CENTRAL_DIR_SIZE + MAX_ARCHIVE_COMMENT_SIZE
+               + ZIP64_END_OF_CENTRAL_DIR_LOCATOR_SIZE);
+         final long tailOffset = fileSize - tailSize;
+         final ByteBuffer tail = ByteBuffer.allocate(tailSize).order(ByteOrder.LITTLE_ENDIAN);
+         readFully(channel, tail, tailOffset);
+         long bytesRead = tailSize;
+
+         int eocd = tailSize - END_OF_CENTRAL_DIR_SIZE;
+         while (eocd >= 0 && tail.getInt(eocd) != END_OF_CENTRAL_DIR_SIG) {
+            eocd--;
+         }
+         if (eocd < 0)
+            throw new ZipException("End of central directory record not found in " + jarFile);
+
+         long centralDirSize = tail.getInt(eocd + 12) & 0xFFFF_FFFFL;
+         long centralDirOffset = tail.getInt(eocd + 16) & 0xFFFF_FFFFL;
+         long centralDirEnd = tailOffset + eocd;
+
+         final int locator = eocd - ZIP64_END_OF_CENTRAL_DIR_LOCATOR_SIZE;
+         if (locator >= 0 && tail.getInt(locator) == ZIP64_END_OF_CENTRAL_DIR_LOCATOR_SIG) {
+            long zip64EocdOffset = tail.getLong(locator + 8);
+            final ByteBuffer zip64Eocd = ByteBuffer.allocate(ZIP64_END_OF_CENTRAL_DIR_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, zip64Eocd, zip64EocdOffset);
+            bytesRead += ZIP64_END_OF_CENTRAL_DIR_SIZE;
+            if (zip64Eocd.getInt(0) != ZIP64_END_OF_CENTRAL_DIR_SIG) {
+               // the recorded offset is relative to the start of the archive, thus look directly in front of the locator
+               zip64EocdOffset = tailOffset + locator - ZIP64_END_OF_CENTRAL_DIR_SIZE;
+               zip64Eocd.clear();
+               readFully(channel, zip64Eocd, zip64EocdOffset);
+               bytesRead += ZIP64_END_OF_CENTRAL_DIR_SIZE;
+               if (zip64Eocd.getInt(0) != ZIP64_END_OF_CENTRAL_DIR_SIG)
+                  throw new ZipException("ZIP64 end of central directory record not found in " + jarFile);
+            }
+            centralDirSize = zip64Eocd.getLong(40);
+            centralDirOffset = zip64Eocd.getLong(48);
+            centralDirEnd = zip64EocdOffset;
+         }
+
+         // the recorded offset is relative to the start of the archive which differs from the file offset if data is prepended
+         if (centralDirEnd - centralDirSize > centralDirOffset) {
+            centralDirOffset = centralDirEnd - centralDirSize;
+         }
+
+         if (centralDirSize > Integer.MAX_VALUE || centralDirOffset < 0 || centralDirOffset + centralDirSize > fileSize)
+            throw new ZipException("Invalid central directory in " + jarFile);
+
+         final ByteBuffer centralDir = ByteBuffer.allocate((int) centralDirSize);
+         readFully(channel, centralDir, centralDirOffset);
+         if (counters != null) {
+            counters.bytesRead.add(bytesRead + centralDirSize);
+         }
+         return centralDir.array();
+      }
+   }
+
+   /**
+    * @return the internal name of all non-anonymous classes declared in the given JAR file e.g. com/acme/MyClass$Inner
+    */
+   static Set<String> readClassNames(final File jarFile) throws IOException {
+      return readClassNames(jarFile, null);
+   }
+
+   /**
+    * @param counters if not null, the number of read JAR entries and bytes is added to these counters
+    * @return the internal name of all non-anonymous classes declared in the given JAR file e.g. com/acme/MyClass$Inner
+    */
+   static Set<String> readClassNames(final File jarFile, final ScanMetrics.Counters counters) throws IOException {
+      final var classNames = new HashSet<String>();
+      // entry names are internal class names followed by the file extension, thus no conversion is required
+      forEachClassEntry(jarFile, counters, (names, start, end, lastSlash, isASCII) -> classNames.add(newString(names, start, end,
+         isASCII)));
+      return classNames;
+   }
+
+   private static void readFully(final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+      long pos = position;
+      while (buffer.hasRemaining()) {
+         final int read = channel.read(buffer, pos);
+         if (read < 0)
+            throw new EOFException();
+         pos += read;
+      }
+      buffer.flip();
+   }
+
+   /**
+    * @return the packages and the number of classes declared in the given JAR file without materializing the class names
+    */
+   static ArtifactClasses readPackages(final File jarFile) throws IOException {
+      return readPackages(jarFile, null);
+   }
+
+   /**
+    * @param counters if not null, the number of read JAR entries and bytes is added to these counters
+    * @return the packages and the number of classes declared in the given JAR file without materializing the class names
+    */
+   static ArtifactClasses readPackages(final File jarFile, final ScanMetrics.Counters counters) throws IOException {
+      final var packages = new HashSet<String>();
+      final int[] classCount = {0};
+      final int[] lastDir = {-1, -1}; // start and end index of the directory of the previous class entry
+      forEachClassEntry(jarFile, counters, (names, start, end, lastSlash, isASCII) -> {
+         classCount[0]++;
+
+         // the entries of a JAR file are usually grouped by directory, so only create a new string if the directory changed
+         final int dirEnd = lastSlash < 0 ? start : lastSlash;
+         final int dirLength = dirEnd - start;
+         if (lastDir[0] > -1 && lastDir[1] - lastDir[0] == dirLength //
+               && Arrays.equals(names, lastDir[0], lastDir[1], names, start, dirEnd))
+            return;
+         lastDir[0] = start;
+         lastDir[1] = dirEnd;
+
+         packages.add(newString(names, start, dirEnd, isASCII));
+      });
+      return new ArtifactClasses(packages, classCount[0], null);
+   }
+}
@@ -0,0 +1,52 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event emitted each time the classes declared by the JAR file of a dependency artifact are determined, either by
+ * enumerating the JAR file via {@link JarClassNamesReader} or by looking them up in a cache.
+ *
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+@Name("com.vegardit.maven.depcheck.JarEnumeration")
+@Label("JAR Enumeration")
+@Category({"Maven", "depcheck"})
+@Description("Determination of the classes declared by a dependency JAR")
+@StackTrace(false)
+final class JarEnumerationEvent extends Event {
+
+   @Label("Module")
+   @Description("The analyzed project, e.g. com.acme:foo:1.0")
+   String module;
+
+   @Label("Artifact")
+   @Description("Coordinates of the artifact, e.g. com.acme:bar:jar:1.0:compile")
+   String artifact;
+
+   @Label("Cache Hit")
+   @Description("True if the classes were taken from the reactor index, the JVM-wide cache or the persistent index")
+   boolean cacheHit;
+
+   @Label("Class Names Materialized")
+   boolean withClasses;
+
+   @Label("JAR Entries Read")
+   long jarEntriesRead;
+
+   @Label("Bytes Read")
+   @DataAmount
+   long bytesRead;
+
+   @Label("Declared Classes")
+   int classCount;
+}
@@ -0,0 +1,51 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event emitted for each analysis of a project by {@link DepsAnalyzer#scan(boolean, boolean)}. The counters are the
+ * sums over all phases, see {@link ScanMetrics}.
+ *
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+@Name("com.vegardit.maven.depcheck.ModuleScan")
+@Label("Module Scan")
+@Category({"Maven", "depcheck"})
+@Description("Dependency analysis of a project")
+@StackTrace(false)
+final class ModuleScanEvent extends Event {
+
+   @Label("Module")
+   @Description("The analyzed project, e.g. com.acme:foo:1.0")
+   String module;
+
+   @Label("Class Files Parsed")
+   long classFilesParsed;
+
+   @Label("JAR Entries Read")
+   long jarEntriesRead;
+
+   @Label("Bytes Read")
+   @DataAmount
+   long bytesRead;
+
+   @Label("Cache Hits")
+   long cacheHits;
+
+   @Label("Cache Misses")
+   long cacheMisses;
+
+   @Label("Partial")
+   @Description("True if the analysis stopped after the first violation or failed")
+   boolean partial;
+}
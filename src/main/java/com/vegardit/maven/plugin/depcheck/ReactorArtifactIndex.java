@@ -0,0 +1,81 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.maven.artifact.Artifact;
+
+/**
+ * Index of the dependency artifacts shared by the analyses of all modules of a reactor, see {@link CheckDepsAggregateMojo}.
+ *
+ * <p>
+ * Each module has its own {@link Artifact} instances, thus an artifact resolved for one module is still unresolved for all other
+ * modules declaring the same dependency. This index records the file of each resolved artifact and the classes declared by it, so
+ * that an artifact resolved and enumerated for one module is reused by the analyses of all other modules. In contrast to the
+ * {@link ArtifactClassCache} the entries are
+ * never evicted, since the index only lives as long as the aggregate analysis.
+ * </p>
+ *
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ *
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+final class ReactorArtifactIndex {
+
+   /**
+    * key = artifact ID, e.g. <code>org.apache.commons:commons-lang3:jar:3.12.0</code>
+    */
+   private final Map<String, File> artifactFiles = new ConcurrentHashMap<>();
+
+   private final Map<File, ArtifactClasses> declaredClasses = new ConcurrentHashMap<>();
+
+   /**
+    * @param withClasses if true, only entries with materialized class names are returned
+    * @return the classes declared by the given JAR file or null if not indexed
+    */
+   ArtifactClasses getDeclaredClasses(final File jarFile, final boolean withClasses) {
+      final ArtifactClasses classes = declaredClasses.get(jarFile);
+      return classes == null || withClasses && !classes.isMaterialized() ? null : classes;
+   }
+
+   /**
+    * Marks the given artifact as resolved if an artifact with the same ID was resolved before.
+    *
+    * @return true if the artifact is resolved
+    */
+   boolean lookupFile(final Artifact artifact) {
+      if (artifact.isResolved())
+         return true;
+
+      final File file = artifactFiles.get(artifact.getId());
+      if (file == null)
+         return false;
+
+      artifact.setFile(file);
+      artifact.setResolved(true);
+      return true;
+   }
+
+   /**
+    * Stores the given declared classes unless classes with materialized class names are already indexed for the given JAR file.
+    */
+   void putDeclaredClasses(final File jarFile, final ArtifactClasses classes) {
+      declaredClasses.merge(jarFile, classes, (indexed, added) -> indexed.isMaterialized() ? indexed : added);
+   }
+
+   /**
+    * Records the file of the given artifact if it is resolved.
+    */
+   void putFile(final Artifact artifact) {
+      if (artifact.isResolved() && artifact.getFile() != null) {
+         artifactFiles.putIfAbsent(artifact.getId(), artifact.getFile());
+      }
+   }
+}
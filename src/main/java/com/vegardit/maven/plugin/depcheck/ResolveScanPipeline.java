@@ -0,0 +1,116 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.MojoExecutionException;
+
+import net.sf.jstuff.core.validation.Args;
+
+/**
+ * Bounded producer/consumer pipeline that resolves dependency artifacts and scans them concurrently.
+ *
+ * <p>
+ * The calling thread resolves the artifacts in chunks and submits a scan task for each resolved artifact to the queue of the
+ * {@link SharedScheduler}. This way the I/O-bound resolution of upcoming artifacts overlaps with the CPU-bound scanning of already
+ * resolved ones. If the workers fall behind, the calling thread helps scanning the oldest pending artifacts until at most
+ * <code>capacity</code> artifacts are waiting before resolving the next chunk. Since the next chunk of up to <code>capacity</code>
+ * artifacts is resolved while these artifacts are still waiting, at most 2 × <code>capacity</code> resolved artifacts are waiting to be
+ * scanned.
+ * </p>
+ *
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ * @param <T> type of the scan results
+ */
+final class ResolveScanPipeline<T> {
+
+   @FunctionalInterface
+   interface Resolver {
+      void resolve(List<Artifact> artifacts) throws MojoExecutionException;
+   }
+
+   @FunctionalInterface
+   interface Scanner<T> {
+      T scan(Artifact artifact) throws MojoExecutionException;
+   }
+
+   private final int capacity;
+   private final SharedScheduler.Queue queue;
+   private final Resolver resolver;
+   private final Scanner<T> scanner;
+
+   /**
+    * @param queue queue the scan tasks are submitted to. If null, all artifacts are resolved at once and then scanned by the calling
+    *           thread.
+    * @param capacity number of artifacts resolved at once and maximum number of resolved artifacts waiting to be scanned when the next
+    *           chunk is resolved, thus at most 2 × <code>capacity</code> resolved artifacts are waiting to be scanned
+    */
+   ResolveScanPipeline(final SharedScheduler.Queue queue, final int capacity, final Resolver resolver, final Scanner<T> scanner) {
+      Args.notNull("resolver", resolver);
+      Args.notNull("scanner", scanner);
+
+      this.queue = queue;
+      this.capacity = Math.max(1, capacity);
+      this.resolver = resolver;
+      this.scanner = scanner;
+   }
+
+   /**
+    * @return the scan results in the order of the given artifacts
+    */
+   List<T> process(final List<Artifact> artifacts) throws MojoExecutionException {
+      if (queue == null || artifacts.size() < 2)
+         return processSequentially(artifacts);
+
+      final var futures = new ArrayList<Future<T>>(artifacts.size());
+      final var results = new ArrayList<T>(artifacts.size());
+      try {
+         for (int i = 0; i < artifacts.size(); i += capacity) {
+            final int chunkEnd = Math.min(i + capacity, artifacts.size());
+            resolver.resolve(artifacts.subList(i, chunkEnd));
+            for (final Artifact artifact : artifacts.subList(i, chunkEnd)) {
+               futures.add(queue.submit(() -> scanner.scan(artifact)));
+            }
+
+            // the workers scan the artifacts of this chunk while the next chunk is resolved, unless they fell behind
+            while (futures.size() - results.size() > capacity) {
+               results.add(queue.await(futures.get(results.size())));
+            }
+         }
+
+         while (results.size() < futures.size()) {
+            results.add(queue.await(futures.get(results.size())));
+         }
+         return results;
+      } catch (final InterruptedException ex) {
+         Thread.currentThread().interrupt();
+         throw new MojoExecutionException("Waiting for worker threads was interrupted.", ex);
+      } catch (final ExecutionException ex) {
+         final Throwable cause = ex.getCause();
+         if (cause instanceof MojoExecutionException)
+            throw (MojoExecutionException) cause;
+         throw new MojoExecutionException(cause.getMessage(), cause);
+      } finally {
+         // skip the scans still pending after a failure
+         for (final Future<T> future : futures) {
+            future.cancel(false);
+         }
+      }
+   }
+
+   private List<T> processSequentially(final List<Artifact> artifacts) throws MojoExecutionException {
+      resolver.resolve(artifacts);
+      final var results = new ArrayList<T>(artifacts.size());
+      for (final Artifact artifact : artifacts) {
+         results.add(scanner.scan(artifact));
+      }
+      return results;
+   }
+}
@@ -0,0 +1,230 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import net.sf.jstuff.core.validation.Args;
+
+/**
+ * Timing and counter metrics of the analysis of a single project, broken down into the phases of
+ * {@link DepsAnalyzer#scan(boolean, boolean)}.
+ *
+ * <p>
+ * The phases are started one after another by the thread performing the analysis. Work executed by worker threads on behalf of the
+ * analysis is counted for the phase that awaits it. Dependency resolution is measured separately whenever artifacts are resolved,
+ * thus its wall time overlaps with the wall time of the indexing phases that resolve upcoming artifacts while already resolved ones
+ * are indexed.
+ * </p>
+ *
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ *
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+final class ScanMetrics {
+
+   enum Phase {
+      OUTPUT_DIRECTORY_SCAN("outputDirectoryScan"),
+      RESOLUTION("resolution"),
+      DIRECT_DEPENDENCY_INDEXING("directDependencyIndexing"),
+      TRANSITIVE_DEPENDENCY_INDEXING("transitiveDependencyIndexing"),
+      MATCHING("matching");
+
+      /**
+       * name of the phase in the JSON representation
+       */
+      final String key;
+
+      Phase(final String key) {
+         this.key = key;
+      }
+   }
+
+   static final class Counters {
+      final LongAdder bytesRead = new LongAdder();
+      final LongAdder cacheHits = new LongAdder();
+      final LongAdder cacheMisses = new LongAdder();
+      final LongAdder classFilesParsed = new LongAdder();
+      final LongAdder jarEntriesRead = new LongAdder();
+      final LongAdder wallTimeNanos = new LongAdder();
+
+      void addTo(final Counters other) {
+         other.bytesRead.add(bytesRead.sum());
+         other.cacheHits.add(cacheHits.sum());
+         other.cacheMisses.add(cacheMisses.sum());
+         other.classFilesParsed.add(classFilesParsed.sum());
+         other.jarEntriesRead.add(jarEntriesRead.sum());
+         other.wallTimeNanos.add(wallTimeNanos.sum());
+      }
+
+      private void appendJson(final StringBuilder sb, final String indent) {
+         sb.append("{\n");
+         sb.append(indent).append("  \"wallTimeNanos\": ").append(wallTimeNanos.sum()).append(",\n");
+         sb.append(indent).append("  \"classFilesParsed\": ").append(classFilesParsed.sum()).append(",\n");
+         sb.append(indent).append("  \"jarEntriesRead\": ").append(jarEntriesRead.sum()).append(",\n");
+         sb.append(indent).append("  \"bytesRead\": ").append(bytesRead.sum()).append(",\n");
+         sb.append(indent).append("  \"cacheHits\": ").append(cacheHits.sum()).append(",\n");
+         sb.append(indent).append("  \"cacheMisses\": ").append(cacheMisses.sum()).append('\n');
+         sb.append(indent).append('}');
+      }
+   }
+
+   private static void appendJsonString(final StringBuilder sb, final String value) {
+      sb.append('"');
+      for (int i = 0; i < value.length(); i++) {
+         final char ch = value.charAt(i);
+         if (ch == '"' || ch == '\\') {
+            sb.append('\\').append(ch);
+         } else if (ch < 0x20) {
+            sb.append(String.format("\\u%04x", (int) ch));
+         } else {
+            sb.append(ch);
+         }
+      }
+      sb.append('"');
+   }
+
+   /**
+    * @return a JSON document with the sum of the metrics of all given analyses followed by the metrics of each analysis
+    */
+   static String toJson(final Collection<ScanMetrics> metricsOfModules) {
+      final var total = new ScanMetrics("reactor");
+      for (final ScanMetrics metrics : metricsOfModules) {
+         total.wallTimeNanos.add(metrics.getWallTimeNanos());
+         for (final Phase phase : Phase.values()) {
+            metrics.get(phase).addTo(total.get(phase));
+         }
+      }
+
+      final var sb = new StringBuilder();
+      sb.append("{\n");
+      sb.append("  \"modules\": ").append(metricsOfModules.size()).append(",\n");
+      total.appendJsonBody(sb, "  ");
+      sb.append(",\n  \"moduleStats\": [");
+      boolean isFirst = true;
+      for (final ScanMetrics metrics : metricsOfModules) {
+         sb.append(isFirst ? "\n    " : ",\n    ");
+         metrics.appendJson(sb, "    ");
+         isFirst = false;
+      }
+      sb.append(isFirst ? "]\n" : "\n  ]\n");
+      sb.append("}\n");
+      return sb.toString();
+   }
+
+   /**
+    * e.g. <code>com.acme:foo:1.0</code>
+    */
+   final String module;
+
+   private final Map<Phase, Counters> counters = new EnumMap<>(Phase.class);
+
+   /**
+    * wall time of all phases except {@link Phase#RESOLUTION}
+    */
+   private final LongAdder wallTimeNanos = new LongAdder();
+
+   /**
+    * the phase started last, work completing after the phase ended, e.g. cancelled tasks, is still counted for it
+    */
+   private volatile Phase activePhase = Phase.OUTPUT_DIRECTORY_SCAN;
+   private long activePhaseStartNanos;
+   private boolean isPhaseRunning;
+
+   ScanMetrics(final String module) {
+      Args.notNull("module", module);
+
+      this.module = module;
+      for (final Phase phase : Phase.values()) {
+         counters.put(phase, new Counters());
+      }
+   }
+
+   private void appendJson(final StringBuilder sb, final String indent) {
+      sb.append("{\n");
+      sb.append(indent).append("  \"module\": ");
+      appendJsonString(sb, module);
+      sb.append(",\n");
+      appendJsonBody(sb, indent + "  ");
+      sb.append('\n').append(indent).append('}');
+   }
+
+   private void appendJsonBody(final StringBuilder sb, final String indent) {
+      sb.append(indent).append("\"wallTimeNanos\": ").append(getWallTimeNanos()).append(",\n");
+      sb.append(indent).append("\"phases\": {");
+      boolean isFirst = true;
+      for (final Phase phase : Phase.values()) {
+         sb.append(isFirst ? "\n" : ",\n").append(indent).append("  \"").append(phase.key).append("\": ");
+         counters.get(phase).appendJson(sb, indent + "  ");
+         isFirst = false;
+      }
+      sb.append('\n').append(indent).append('}');
+   }
+
+   /**
+    * Stops the wall time of the active phase, if any.
+    */
+   synchronized void endPhase() {
+      if (!isPhaseRunning)
+         return;
+      final long elapsed = System.nanoTime() - activePhaseStartNanos;
+      counters.get(activePhase).wallTimeNanos.add(elapsed);
+      wallTimeNanos.add(elapsed);
+      isPhaseRunning = false;
+   }
+
+   Counters get(final Phase phase) {
+      return counters.get(phase);
+   }
+
+   /**
+    * @return the counters of the phase started last
+    */
+   Counters getActive() {
+      return counters.get(activePhase);
+   }
+
+   /**
+    * @return the sum of the counters of all phases
+    */
+   Counters getTotal() {
+      final var total = new Counters();
+      for (final Counters countersOfPhase : counters.values()) {
+         countersOfPhase.addTo(total);
+      }
+      return total;
+   }
+
+   long getWallTimeNanos() {
+      return wallTimeNanos.sum();
+   }
+
+   /**
+    * Ends the active phase, if any, and starts the wall time of the given phase. {@link Phase#RESOLUTION} is not started as phase but
+    * measured directly via {@link #get(Phase)}.
+    */
+   synchronized void startPhase(final Phase phase) {
+      Args.notNull("phase", phase);
+
+      endPhase();
+      activePhase = phase;
+      activePhaseStartNanos = System.nanoTime();
+      isPhaseRunning = true;
+   }
+
+   /**
+    * @return a JSON document with the metrics of this analysis
+    */
+   String toJson() {
+      final var sb = new StringBuilder();
+      appendJson(sb, "");
+      return sb.append('\n').toString();
+   }
+}
@@ -0,0 +1,151 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.TreeSet;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+
+import com.vegardit.maven.plugin.depcheck.DepsAnalyzer.ScanResult;
+
+import net.sf.jstuff.core.Strings;
+import net.sf.jstuff.core.validation.Args;
+
+/**
+ * Stores the {@link ScanResult} of a project together with the fingerprint of the inputs it was computed from, so that the analysis
+ * can be skipped if nothing changed, see {@link DepsAnalyzer#computeInputFingerprint(boolean, boolean)}.
+ *
+ * <p>
+ * Artifacts are stored by their ID and the used classes of transitive dependencies by their internal names:
+ * </p>
+ *
+ * <pre>
+ * depcheck-scan-result:1
+ * &lt;fingerprint&gt;
+ * unused &lt;artifactId&gt;
+ * used &lt;artifactId&gt; &lt;class&gt;...
+ * </pre>
+ *
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+final class ScanResultStore {
+
+   private static final String FORMAT_VERSION = "depcheck-scan-result:1";
+
+   private final Path file;
+   private final Log log;
+
+   ScanResultStore(final Path file, final Log log) {
+      Args.notNull("file", file);
+      Args.notNull("log", log);
+
+      this.file = file;
+      this.log = log;
+   }
+
+   /**
+    * @param artifacts the dependencies of the given project the stored artifact IDs are resolved against
+    * @return the stored result or null if no result is stored, it was computed from different inputs or refers to an unknown artifact
+    */
+   ScanResult load(final String fingerprint, final MavenProject project, final Collection<Artifact> artifacts) {
+      if (!Files.isRegularFile(file))
+         return null;
+
+      final var artifactsById = new HashMap<String, Artifact>();
+      for (final Artifact artifact : artifacts) {
+         artifactsById.put(artifact.getId(), artifact);
+      }
+
+      try (var reader = Files.newBufferedReader(file, UTF_8)) {
+         if (!FORMAT_VERSION.equals(reader.readLine()) || !fingerprint.equals(reader.readLine()))
+            return null;
+
+         final var result = new ScanResult(project);
+         String line;
+         while ((line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+               continue;
+            }
+            final String[] fields = Strings.split(line, ' ');
+            final Artifact artifact = fields.length < 2 ? null : artifactsById.get(fields[1]);
+            if (artifact == null)
+               return null;
+
+            switch (fields[0]) {
+               case "unused":
+                  result.unusedDirectDependencies.add(artifact);
+                  break;
+               case "used":
+                  final var usedClasses = new HashSet<String>(fields.length * 4 / 3 + 1);
+                  for (int i = 2; i < fields.length; i++) {
+                     usedClasses.add(fields[i]);
+                  }
+                  result.usedClassesOfTransitiveDependencies.put(artifact, usedClasses);
+                  break;
+               default:
+                  return null;
+            }
+         }
+         return result;
+      } catch (final IOException | RuntimeException ex) {
+         log.debug("Reading scan result file " + file + " failed: " + ex.getMessage(), ex);
+         return null;
+      }
+   }
+
+   /**
+    * Stores the given result. Failures are logged but not propagated since the stored result is only an optimization.
+    */
+   void save(final String fingerprint, final ScanResult result) {
+      try {
+         Files.createDirectories(file.getParent());
+
+         // write to a temporary file first so an interrupted build never leaves a partially written result behind
+         final Path tmpFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+         try {
+            try (var writer = Files.newBufferedWriter(tmpFile, UTF_8)) {
+               writer.write(FORMAT_VERSION);
+               writer.newLine();
+               writer.write(fingerprint);
+               writer.newLine();
+               final var unusedDirectDeps = new ArrayList<>(result.unusedDirectDependencies);
+               unusedDirectDeps.sort(Comparator.comparing(Artifact::getId));
+               for (final Artifact unusedDirectDep : unusedDirectDeps) {
+                  writer.write("unused " + unusedDirectDep.getId());
+                  writer.newLine();
+               }
+               final var usedTransDeps = new ArrayList<>(result.getUsedTransitiveDependencies());
+               usedTransDeps.sort(Comparator.comparing(Artifact::getId));
+               for (final Artifact usedTransDep : usedTransDeps) {
+                  writer.write("used " + usedTransDep.getId());
+                  for (final String usedClass : new TreeSet<>(result.usedClassesOfTransitiveDependencies.get(usedTransDep))) {
+                     writer.write(' ');
+                     writer.write(usedClass);
+                  }
+                  writer.newLine();
+               }
+            }
+            Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+         } finally {
+            Files.deleteIfExists(tmpFile);
+         }
+      } catch (final IOException ex) {
+         log.warn("Writing scan result file " + file + " failed: " + ex.getMessage());
+      }
+   }
+}
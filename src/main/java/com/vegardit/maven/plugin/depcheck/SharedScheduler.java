@@ -0,0 +1,224 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import net.sf.jstuff.core.validation.Args;
+
+/**
+ * Plugin-wide pool of worker threads shared by all concurrently running goal executions, e.g. the executions for the modules of a
+ * reactor built with <code>mvn -T 1C</code>, so that the internal parallelism of the analyses does not oversubscribe the CPUs.
+ *
+ * <p>
+ * Each analysis submits its tasks through its own {@link Queue}. The workers serve the queues with pending tasks in round-robin order,
+ * thus a module with many tasks cannot starve the other modules. Threads waiting for the result of a task run pending tasks of the
+ * same queue themselves instead of blocking, so an analysis always makes progress even if all workers are busy.
+ * </p>
+ *
+ * <p>
+ * The scheduler is reference counted, see {@link #acquire(int)} and {@link #release()}. Each goal execution acquires it for the
+ * analysis of one project and releases it afterwards - also if the analysis failed - thus its threads are stopped as soon as no goal
+ * execution uses it, even if the build stops after a failing project and never completes the goal executions for the remaining projects.
+ * A later build running in the same JVM, e.g. in a Maven daemon, starts new threads according to its own configuration.
+ * </p>
+ *
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+final class SharedScheduler {
+
+   /**
+    * FIFO queue of the tasks submitted by one analysis.
+    */
+   final class Queue {
+      private boolean isReady;
+      private final int parallelism;
+      private int running;
+      private final ArrayDeque<FutureTask<?>> tasks = new ArrayDeque<>();
+
+      private Queue(final int parallelism) {
+         this.parallelism = parallelism;
+      }
+
+      /**
+       * Waits for the given task to complete. While the task is pending, pending tasks of this queue are run by the calling thread.
+       */
+      <T> T await(final Future<T> future) throws ExecutionException, InterruptedException {
+         while (!future.isDone()) {
+            final FutureTask<?> task = poll();
+            if (task == null) {
+               // all tasks of this queue are running, including the awaited one
+               break;
+            }
+            task.run();
+         }
+         return future.get();
+      }
+
+      private FutureTask<?> poll() {
+         lock.lock();
+         try {
+            return tasks.poll();
+         } finally {
+            lock.unlock();
+         }
+      }
+
+      /**
+       * must be called while holding the {@link SharedScheduler#lock}
+       */
+      private void signalIfReady() {
+         // once the scheduler is shut down, the tasks are run by the threads awaiting them
+         if (!isShutdown && !isReady && running < parallelism && !tasks.isEmpty()) {
+            isReady = true;
+            readyQueues.add(this);
+            readyQueuesNotEmpty.signal();
+         }
+      }
+
+      <T> Future<T> submit(final Callable<T> callable) {
+         final var task = new FutureTask<T>(callable);
+         lock.lock();
+         try {
+            tasks.add(task);
+            signalIfReady();
+         } finally {
+            lock.unlock();
+         }
+         return task;
+      }
+   }
+
+   private static SharedScheduler instance;
+
+   /**
+    * number of {@link #acquire(int)} calls not yet followed by a {@link #release()} call
+    */
+   private static int users;
+
+   /**
+    * Each call must be followed by exactly one call of {@link #release()}.
+    *
+    * @param threads number of worker threads of the scheduler if it is not running yet, <code>0</code> uses the number of available
+    *           processors
+    */
+   static synchronized SharedScheduler acquire(final int threads) {
+      if (instance == null) {
+         instance = new SharedScheduler(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+      }
+      users++;
+      return instance;
+   }
+
+   /**
+    * @return true if the worker threads of the scheduler are running
+    */
+   static synchronized boolean isRunning() {
+      return instance != null;
+   }
+
+   /**
+    * Stops the worker threads if no other goal execution uses the scheduler.
+    */
+   static synchronized void release() {
+      if (instance != null && --users == 0) {
+         instance.shutdown();
+         instance = null;
+      }
+   }
+
+   private boolean isShutdown;
+   private final ReentrantLock lock = new ReentrantLock();
+   private final ArrayDeque<Queue> readyQueues = new ArrayDeque<>();
+   private final Condition readyQueuesNotEmpty = lock.newCondition();
+   private final List<Thread> workers;
+
+   private SharedScheduler(final int threads) {
+      workers = new ArrayList<>(threads);
+      for (int i = 0; i < threads; i++) {
+         final var worker = new Thread(this::runWorker, "depcheck-worker-" + (i + 1));
+         worker.setDaemon(true);
+         workers.add(worker);
+         worker.start();
+      }
+   }
+
+   int getThreads() {
+      return workers.size();
+   }
+
+   /**
+    * @param parallelism maximum number of worker threads running tasks of the queue at the same time, not counting the threads
+    *           awaiting tasks of the queue
+    */
+   Queue newQueue(final int parallelism) {
+      Args.greaterThan("parallelism", parallelism, 0);
+      return new Queue(parallelism);
+   }
+
+   private void runWorker() {
+      while (true) {
+         final Queue queue;
+         final FutureTask<?> task;
+         lock.lock();
+         try {
+            while (readyQueues.isEmpty()) {
+               if (isShutdown)
+                  return;
+               readyQueuesNotEmpty.awaitUninterruptibly();
+            }
+
+            // take one task of the next queue and move the queue to the end, i.e. serve the queues round-robin
+            queue = readyQueues.poll();
+            queue.isReady = false;
+            task = queue.tasks.poll();
+            if (task == null) {
+               // the tasks were already taken by the threads awaiting them
+               continue;
+            }
+            queue.running++;
+            queue.signalIfReady();
+         } finally {
+            lock.unlock();
+         }
+
+         try {
+            task.run();
+         } finally {
+            lock.lock();
+            try {
+               queue.running--;
+               queue.signalIfReady();
+            } finally {
+               lock.unlock();
+            }
+         }
+      }
+   }
+
+   private void shutdown() {
+      lock.lock();
+      try {
+         isShutdown = true;
+
+         // pending tasks are run by the threads awaiting them
+         for (final Queue queue : readyQueues) {
+            queue.isReady = false;
+         }
+         readyQueues.clear();
+         readyQueuesNotEmpty.signalAll();
+      } finally {
+         lock.unlock();
+      }
+   }
+}
@@ -0,0 +1,76 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps class names to consecutive int IDs so that sets of classes can be represented as {@link BitSet}s and each class name is held
+ * only once in memory.
+ *
+ * <p>
+ * This class is thread-safe. Looking up the ID of an already interned name does not block.
+ * </p>
+ *
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+final class SymbolTable {
+
+   private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+   private final List<String> names = new ArrayList<>();
+
+   /**
+    * @return the ID of the given name or -1 if the name was not interned
+    */
+   int idOf(final String name) {
+      final Integer id = ids.get(name);
+      return id == null ? -1 : id;
+   }
+
+   /**
+    * @return the ID of the given name, assigning a new one if the name was not interned yet
+    */
+   int intern(final String name) {
+      final Integer id = ids.get(name);
+      if (id != null)
+         return id;
+
+      synchronized (names) {
+         return ids.computeIfAbsent(name, key -> {
+            names.add(key);
+            return names.size() - 1;
+         });
+      }
+   }
+
+   String nameOf(final int id) {
+      synchronized (names) {
+         return names.get(id);
+      }
+   }
+
+   /**
+    * @return the names of the IDs set in the given bit set
+    */
+   List<String> namesOf(final BitSet ids) {
+      final var result = new ArrayList<String>(ids.cardinality());
+      synchronized (names) {
+         for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            result.add(names.get(id));
+         }
+      }
+      return result;
+   }
+
+   int size() {
+      synchronized (names) {
+         return names.size();
+      }
+   }
+}
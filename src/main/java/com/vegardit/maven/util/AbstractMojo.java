@@ -4,13 +4,16 @@
  */
 package com.vegardit.maven.util;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
@@ -29,6 +32,7 @@
 import org.apache.maven.repository.RepositorySystem;
 
 import net.sf.jstuff.core.Strings;
+import net.sf.jstuff.core.collection.tuple.Tuple2;
 import net.sf.jstuff.core.validation.Args;
 
 /**
@@ -50,6 +54,11 @@ public abstract class AbstractMojo implements Mojo {
 
    protected Log log = DEFAULT_LOG;
 
+   /**
+    * lazily populated by {@link #getDependencies(MavenProject)}, value = direct and transitive dependencies
+    */
+   private final Map<MavenProject, Tuple2<Set<Artifact>, Set<Artifact>>> dependenciesByProject = new ConcurrentHashMap<>();
+
    @Parameter(defaultValue = "${project}", readonly = true)
    protected MavenProject mvnCurrentProject;
 
@@ -68,6 +77,9 @@ public abstract class AbstractMojo implements Mojo {
    @Inject
    protected RepositorySystem mvnRepoSystem;
 
+   @Inject
+   protected org.eclipse.aether.RepositorySystem mvnResolver;
+
    @Parameter(defaultValue = "${session}", readonly = true)
    protected MavenSession mvnSession;
 
@@ -82,37 +94,64 @@ public final void execute() throws MojoExecutionException, MojoFailureException
          return;
       }
 
-      final String executionId = getClass().getName() + ":" + mvnExecution.getExecutionId() + ":" + mvnExecution.getGoal();
+      final String executionId = getExecutionKey();
 
-      final AtomicInteger synchronizer = SYNCHRONIZERS.computeIfAbsent(executionId, key -> new AtomicInteger(mvnReactorProjects.size()));
+      // aggregator goals are only executed once per reactor
+      final int executions = isAggregator() ? 1 : mvnReactorProjects.size();
+      final AtomicInteger synchronizer = SYNCHRONIZERS.computeIfAbsent(executionId, key -> new AtomicInteger(executions));
       try {
          executeOnEachProject();
       } finally {
-         if (synchronizer.decrementAndGet() == 0) {
-            SYNCHRONIZERS.remove(executionId);
-            executeAfterLastProject();
+         try {
+            executeAfterEachProject();
+         } finally {
+            if (synchronizer.decrementAndGet() == 0) {
+               SYNCHRONIZERS.remove(executionId);
+               executeAfterLastProject();
+            }
          }
       }
    }
 
+   /**
+    * Executed after {@link #executeOnEachProject()}, also if it failed. In contrast to {@link #executeAfterLastProject()} this method is
+    * also executed if the build stops after a failing project.
+    */
+   @SuppressWarnings("unused")
+   protected void executeAfterEachProject() throws MojoExecutionException, MojoFailureException {
+   }
+
    @SuppressWarnings("unused")
    protected void executeAfterLastProject() throws MojoExecutionException, MojoFailureException {
    }
 
+   /**
+    * Executed for each project of the reactor or - for aggregator goals - only once for the top-level project.
+    */
    @SuppressWarnings("unused")
    protected void executeOnEachProject() throws MojoExecutionException, MojoFailureException {
    }
 
+   /**
+    * @return the direct and transitive dependencies of the given project, computed once per execution
+    */
+   private Tuple2<Set<Artifact>, Set<Artifact>> getDependencies(final MavenProject project) {
+      return dependenciesByProject.computeIfAbsent(project, this::splitDependencies);
+   }
+
+   /**
+    * @return a key identifying this goal execution, which is shared by the mojo instances executing it for the projects of the reactor
+    */
+   protected String getExecutionKey() {
+      return getClass().getName() + ":" + mvnExecution.getExecutionId() + ":" + mvnExecution.getGoal();
+   }
+
    public Set<Artifact> getDirectDependencies() {
-      final Set<Artifact> deps = mvnCurrentProject.getDependencies().stream() //
-         .map(d -> MavenUtils.dependencyToArtifact(d, mvnRepoSystem)) //
-         .collect(Collectors.toSet());
+      return getDirectDependencies(mvnCurrentProject);
+   }
 
-      if (verbose) {
-         log.info("getDirectDependencies():");
-         deps.stream().sorted().forEach(dep -> log.info(" - " + dep));
-      }
-      return deps;
+   public Set<Artifact> getDirectDependencies(final MavenProject project) {
+      return getDependencies(project).get1();
    }
 
    @Override
@@ -132,15 +171,21 @@ public List<MavenProject> getReactorProjects() {
     * @return a set of indirectly referenced artifacts
     */
    public Set<Artifact> getTransitiveDependencies() {
+      return getTransitiveDependencies(mvnCurrentProject);
+   }
 
-      final var deps = new HashSet<>(mvnCurrentProject.getArtifacts());
-      deps.removeAll(getDirectDependencies());
+   /**
+    * @return a set of indirectly referenced artifacts of the given project
+    */
+   public Set<Artifact> getTransitiveDependencies(final MavenProject project) {
+      return getDependencies(project).get2();
+   }
 
-      if (verbose) {
-         log.info("getTransitiveDependencyArtifacts():");
-         deps.stream().sorted().forEach(dep -> log.info(" - " + dep));
-      }
-      return deps;
+   /**
+    * @return true if the goal is an aggregator, i.e. it is only executed once per reactor
+    */
+   public boolean isAggregator() {
+      return mvnExecution.getMojoDescriptor() != null && mvnExecution.getMojoDescriptor().isAggregator();
    }
 
    /**
@@ -160,18 +205,93 @@ public boolean isVerbose() {
 
    public void resolveArtifact(final Artifact artifact) throws MojoExecutionException {
       Args.notNull("artifact", artifact);
-      if (artifact.isResolved())
-         return;
 
-      MavenUtils.resolveArtifact(artifact, mvnRepoSystem, mvnCurrentProject.getRemoteArtifactRepositories(), mvnLocalRepo);
+      resolveArtifacts(Collections.singletonList(artifact));
    }
 
    public Artifact resolveArtifact(final Dependency dep) throws MojoExecutionException {
-      return MavenUtils.resolveArtifact(dep, mvnRepoSystem, mvnCurrentProject.getRemoteArtifactRepositories(), mvnLocalRepo);
+      final Artifact artifact = MavenUtils.dependencyToArtifact(dep, mvnRepoSystem);
+      resolveArtifact(artifact);
+      return artifact;
+   }
+
+   /**
+    * Resolves all given artifacts not resolved yet with a single request, see
+    * {@link MavenUtils#resolveArtifacts(java.util.Collection, org.eclipse.aether.RepositorySystem, org.eclipse.aether.RepositorySystemSession, List)}
+    */
+   public void resolveArtifacts(final Collection<Artifact> artifacts) throws MojoExecutionException {
+      resolveArtifacts(mvnCurrentProject, artifacts);
+   }
+
+   /**
+    * Resolves all given artifacts not resolved yet with a single request using the remote repositories of the given project. One
+    * {@link ArtifactResolutionEvent} is emitted for the request.
+    */
+   public void resolveArtifacts(final MavenProject project, final Collection<Artifact> artifacts) throws MojoExecutionException {
+      final var event = new ArtifactResolutionEvent();
+      if (event.isEnabled()) {
+         for (final Artifact artifact : artifacts) {
+            if (artifact.isResolved()) {
+               event.alreadyResolvedCount++;
+            }
+         }
+      }
+      event.begin();
+      try {
+         MavenUtils.resolveArtifacts(artifacts, mvnResolver, mvnSession.getRepositorySession(), project.getRemoteProjectRepositories());
+      } finally {
+         event.end();
+         if (event.shouldCommit()) {
+            final var artifactIds = new StringBuilder();
+            for (final Artifact artifact : artifacts) {
+               if (artifactIds.length() > 0) {
+                  artifactIds.append(", ");
+               }
+               artifactIds.append(artifact);
+               if (artifact.isResolved()) {
+                  event.resolvedCount++;
+                  event.bytes += artifact.getFile() == null ? 0 : artifact.getFile().length();
+               }
+            }
+            event.module = project.getGroupId() + ":" + project.getArtifactId() + ":" + project.getVersion();
+            event.artifacts = artifactIds.toString();
+            event.artifactCount = artifacts.size();
+            event.commit();
+         }
+      }
    }
 
    @Override
    public void setLog(final Log log) {
       this.log = log;
    }
+
+   /**
+    * Splits the dependencies of the given project into direct and transitive dependencies. The artifacts Maven collected - and possibly
+    * already resolved - for the project are reused.
+    */
+   private Tuple2<Set<Artifact>, Set<Artifact>> splitDependencies(final MavenProject project) {
+      final Set<Artifact> projectArtifacts = project.getArtifacts() == null ? Collections.emptySet() : project.getArtifacts();
+      final var projectArtifactsByKey = new HashMap<String, Artifact>();
+      for (final Artifact projectArtifact : projectArtifacts) {
+         projectArtifactsByKey.put(projectArtifact.getDependencyConflictId(), projectArtifact);
+      }
+
+      final var directDeps = new HashSet<Artifact>();
+      for (final Dependency dependency : project.getDependencies()) {
+         final Artifact projectArtifact = projectArtifactsByKey.get(dependency.getManagementKey());
+         directDeps.add(projectArtifact == null ? MavenUtils.dependencyToArtifact(dependency, mvnRepoSystem) : projectArtifact);
+      }
+
+      final var transitiveDeps = new HashSet<>(projectArtifacts);
+      transitiveDeps.removeAll(directDeps);
+
+      if (verbose) {
+         log.info("getDirectDependencies():");
+         directDeps.stream().sorted().forEach(dep -> log.info(" - " + dep));
+         log.info("getTransitiveDependencyArtifacts():");
+         transitiveDeps.stream().sorted().forEach(dep -> log.info(" - " + dep));
+      }
+      return Tuple2.create(Collections.unmodifiableSet(directDeps), Collections.unmodifiableSet(transitiveDeps));
+   }
 }
@@ -0,0 +1,52 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event emitted for each request of
+ * {@link AbstractMojo#resolveArtifacts(org.apache.maven.project.MavenProject, java.util.Collection)}, which resolves a batch of artifacts
+ * at once.
+ *
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+@Name("com.vegardit.maven.ArtifactResolution")
+@Label("Artifact Resolution")
+@Category({"Maven", "depcheck"})
+@Description("Resolution of a batch of dependency artifacts with a single request")
+@StackTrace(false)
+final class ArtifactResolutionEvent extends Event {
+
+   @Label("Module")
+   @Description("Project the artifacts are resolved for, e.g. com.acme:foo:1.0")
+   String module;
+
+   @Label("Artifacts")
+   @Description("Comma separated coordinates of the artifacts, e.g. com.acme:bar:jar:1.0:compile")
+   String artifacts;
+
+   @Label("Artifact Count")
+   int artifactCount;
+
+   @Label("Already Resolved")
+   @Description("Number of artifacts that were already resolved and thus not requested")
+   int alreadyResolvedCount;
+
+   @Label("Resolved")
+   @Description("Number of artifacts resolved after the request")
+   int resolvedCount;
+
+   @Label("File Size")
+   @Description("Total size of the files of the resolved artifacts")
+   @DataAmount
+   long bytes;
+}
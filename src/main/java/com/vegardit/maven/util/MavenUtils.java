@@ -4,18 +4,23 @@
  */
 package com.vegardit.maven.util;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.apache.maven.RepositoryUtils;
 import org.apache.maven.artifact.Artifact;
-import org.apache.maven.artifact.repository.ArtifactRepository;
-import org.apache.maven.artifact.resolver.ArtifactResolutionRequest;
-import org.apache.maven.artifact.resolver.ArtifactResolutionResult;
 import org.apache.maven.model.Dependency;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.project.MavenProject;
-import org.apache.maven.repository.RepositorySystem;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.eclipse.aether.resolution.ArtifactResult;
 
 import net.sf.jstuff.core.Strings;
 import net.sf.jstuff.core.validation.Args;
@@ -25,7 +30,8 @@
  */
 public abstract class MavenUtils {
 
-   public static Artifact dependencyToArtifact(final Dependency dependency, final RepositorySystem repositorySystem) {
+   public static Artifact dependencyToArtifact(final Dependency dependency,
+         final org.apache.maven.repository.RepositorySystem repositorySystem) {
       final Artifact artifact;
       if (Strings.isEmpty(dependency.getClassifier())) {
          artifact = repositorySystem.createArtifact(dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion(), dependency
@@ -38,35 +44,47 @@ public static Artifact dependencyToArtifact(final Dependency dependency, final R
       return artifact;
    }
 
-   public static void resolveArtifact( //
-         final Artifact artifact, //
+   /**
+    * Resolves all given artifacts that are not resolved yet with a single request to the repository system, which looks up all artifacts
+    * in the local repository at once and downloads the missing ones concurrently.
+    */
+   public static void resolveArtifacts( //
+         final Collection<Artifact> artifacts, //
          final RepositorySystem repositorySystem, //
-         final List<ArtifactRepository> remoteRepositories, //
-         final ArtifactRepository localRepository //
+         final RepositorySystemSession repositorySession, //
+         final List<RemoteRepository> remoteRepositories //
    ) throws MojoExecutionException {
-      Args.notNull("artifact", artifact);
-      if (artifact.isResolved())
+      Args.notNull("artifacts", artifacts);
+
+      final var unresolvedArtifacts = new ArrayList<Artifact>();
+      final var requests = new ArrayList<ArtifactRequest>();
+      for (final Artifact artifact : artifacts) {
+         if (!artifact.isResolved()) {
+            unresolvedArtifacts.add(artifact);
+            requests.add(new ArtifactRequest(RepositoryUtils.toArtifact(artifact), remoteRepositories, null));
+         }
+      }
+      if (requests.isEmpty())
          return;
 
-      final ArtifactResolutionResult result = repositorySystem.resolve( //
-         new ArtifactResolutionRequest() //
-            .setArtifact(artifact) //
-            .setRemoteRepositories(remoteRepositories) //
-            .setLocalRepository(localRepository) //
-      );
-      if (result.hasExceptions())
-         throw new MojoExecutionException("Could not resolve artifact: " + artifact, result.getExceptions().get(0));
-   }
+      final List<ArtifactResult> results;
+      try {
+         results = repositorySystem.resolveArtifacts(repositorySession, requests);
+      } catch (final ArtifactResolutionException ex) {
+         for (int i = 0; i < ex.getResults().size(); i++) {
+            final ArtifactResult result = ex.getResults().get(i);
+            if (!result.isResolved())
+               throw new MojoExecutionException("Could not resolve artifact: " + unresolvedArtifacts.get(i), result.getExceptions()
+                  .isEmpty() ? ex : result.getExceptions().get(0));
+         }
+         throw new MojoExecutionException(ex.getMessage(), ex);
+      }
 
-   public static Artifact resolveArtifact( //
-         final Dependency dependency, //
-         final RepositorySystem repositorySystem, //
-         final List<ArtifactRepository> remoteRepositories, //
-         final ArtifactRepository localRepository //
-   ) throws MojoExecutionException {
-      final Artifact artifact = dependencyToArtifact(dependency, repositorySystem);
-      resolveArtifact(artifact, repositorySystem, remoteRepositories, localRepository);
-      return artifact;
+      for (int i = 0; i < results.size(); i++) {
+         final Artifact artifact = unresolvedArtifacts.get(i);
+         artifact.setFile(results.get(i).getArtifact().getFile());
+         artifact.setResolved(true);
+      }
    }
 
    public static String toString(final MavenProject project) {
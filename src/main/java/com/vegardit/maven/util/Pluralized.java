@@ -26,4 +26,8 @@ public static String dependencies(final int count) {
    public static String dependencies(final int count, final String prefix) {
       return count + " " + prefix + " " + Strings.pluralize(count, "dependency", "dependencies");
    }
+
+   public static String modules(final int count) {
+      return count + " " + Strings.pluralize(count, "module", "modules");
+   }
 }
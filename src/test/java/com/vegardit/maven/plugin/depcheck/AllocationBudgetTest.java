@@ -0,0 +1,178 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.apache.maven.artifact.Artifact;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.Opcodes;
+
+import com.vegardit.maven.util.AbstractMavenTest;
+
+import net.sf.jstuff.core.logging.Logger;
+
+/**
+ * Asserts upper bounds for the heap allocated per additional class reference by {@link AbstractClassAnalyzer} and per additional JAR
+ * entry by {@link DepsAnalyzer#scanArtifactForDeclaredClasses(Artifact, boolean)} on synthetic inputs of two sizes, so that changes
+ * bringing back per-reference or per-entry garbage fail the build.
+ *
+ * <p>
+ * The fixed costs, e.g. of the parser buffers, do not depend on the size of the input and are excluded by only comparing the growth
+ * of the allocations with the growth of the input. The budgets are expressed relative to the growth of the input in bytes, i.e. of the
+ * class files and of the JAR file, and have a generous margin, so that they do not depend on the allocations of a particular Java
+ * version.
+ * </p>
+ *
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+class AllocationBudgetTest extends AbstractMavenTest {
+
+   private static final Logger LOG = Logger.create();
+
+   private static final int CLASS_COUNT = 1_000;
+
+   /**
+    * number of classes referenced by each class file of the small and the large class file corpus
+    */
+   private static final int SMALL_FAN_OUT = 10;
+   private static final int LARGE_FAN_OUT = 40;
+
+   /**
+    * number of class entries of the small and the large JAR file
+    */
+   private static final int SMALL_JAR_ENTRY_COUNT = 5_000;
+   private static final int LARGE_JAR_ENTRY_COUNT = 20_000;
+
+   /*
+    * Upper bounds of the bytes allocated per additional byte of input, about twice the ratios measured on Java 17 and 21 (2.85 and
+    * 2.12 bytes per class file byte, 0.42 and 1.34 bytes per JAR file byte). Copying the input per class reference or JAR entry
+    * grows quadratically and exceeds them by far.
+    */
+   private static final double ASM_MAX_BYTES_PER_CLASS_FILE_BYTE = 6.0;
+   private static final double CONSTANT_POOL_MAX_BYTES_PER_CLASS_FILE_BYTE = 4.5;
+   private static final double PACKAGES_MAX_BYTES_PER_JAR_FILE_BYTE = 1.0;
+   private static final double CLASS_NAMES_MAX_BYTES_PER_JAR_FILE_BYTE = 3.0;
+
+   private static long getTotalSize(final List<byte[]> classFiles) {
+      long size = 0;
+      for (final byte[] classFile : classFiles) {
+         size += classFile.length;
+      }
+      return size;
+   }
+
+   @TempDir
+   Path tempDir;
+
+   @BeforeEach
+   void assumeAllocationCounterSupported() {
+      assumeTrue(AllocationCounter.isSupported());
+   }
+
+   private void assertBytesPerClassReference(final ClassAnalyzerEngine engine, final double maxBytesPerClassFileByte) throws Exception {
+      final List<byte[]> smallClassFiles = writeClassFiles("small-" + engine, SMALL_FAN_OUT);
+      final List<byte[]> largeClassFiles = writeClassFiles("large-" + engine, LARGE_FAN_OUT);
+      final long allocatedBytes = measureAllocatedBytes(engine, largeClassFiles) - measureAllocatedBytes(engine, smallClassFiles);
+      final long classFileBytes = getTotalSize(largeClassFiles) - getTotalSize(smallClassFiles);
+      final long classReferences = (long) CLASS_COUNT * (LARGE_FAN_OUT - SMALL_FAN_OUT);
+      final double bytesPerClassFileByte = (double) allocatedBytes / classFileBytes;
+      LOG.info("%s engine: %,d bytes allocated per additional class reference adding %,d bytes of byte code (%.2f bytes per byte)", engine,
+         allocatedBytes / classReferences, classFileBytes / classReferences, bytesPerClassFileByte);
+
+      assertThat(bytesPerClassFileByte).as(engine + " engine bytes allocated per additional class file byte").isLessThanOrEqualTo(
+         maxBytesPerClassFileByte);
+   }
+
+   private void assertBytesPerJarEntry(final DepsAnalyzer analyzer, final Artifact smallArtifact, final Artifact largeArtifact,
+         final boolean withClasses, final double maxBytesPerJarFileByte) throws Exception {
+      final long allocatedBytes = measureAllocatedBytes(analyzer, largeArtifact, withClasses, LARGE_JAR_ENTRY_COUNT)
+            - measureAllocatedBytes(analyzer, smallArtifact, withClasses, SMALL_JAR_ENTRY_COUNT);
+      final long jarFileBytes = largeArtifact.getFile().length() - smallArtifact.getFile().length();
+      final int jarEntries = LARGE_JAR_ENTRY_COUNT - SMALL_JAR_ENTRY_COUNT;
+      final double bytesPerJarFileByte = (double) allocatedBytes / jarFileBytes;
+      final String kind = withClasses ? "Class names" : "Packages";
+      LOG.info("%s: %,d bytes allocated per additional JAR entry adding %,d bytes to the JAR file (%.2f bytes per byte)", kind,
+         allocatedBytes / jarEntries, jarFileBytes / jarEntries, bytesPerJarFileByte);
+
+      assertThat(bytesPerJarFileByte).as(kind + " bytes allocated per additional JAR file byte").isLessThanOrEqualTo(
+         maxBytesPerJarFileByte);
+   }
+
+   private long measureAllocatedBytes(final ClassAnalyzerEngine engine, final List<byte[]> classFiles) throws Exception {
+      // one analyzer for all class files and interned class names as in DepsAnalyzer#scanClassFiles
+      final var symbols = new SymbolTable();
+      final var referencedClasses = new BitSet();
+      final var analyzer = new AbstractClassAnalyzer(Opcodes.ASM9) {
+         @Override
+         protected void onClassName(final String nameOfReferencedClass) {
+            symbols.intern(nameOfReferencedClass);
+         }
+
+         @Override
+         protected void onClassReference(final String nameOfReferencedClass) {
+            referencedClasses.set(symbols.intern(nameOfReferencedClass));
+         }
+      };
+
+      return AllocationCounter.measure(3, () -> {
+         for (final byte[] classFile : classFiles) {
+            analyzer.scan(classFile, engine);
+         }
+      });
+   }
+
+   private long measureAllocatedBytes(final DepsAnalyzer analyzer, final Artifact artifact, final boolean withClasses,
+         final int jarEntryCount) throws Exception {
+      return AllocationCounter.measure(3, () -> assertThat(analyzer.scanArtifactForDeclaredClasses(artifact, withClasses).classCount)
+         .isEqualTo(jarEntryCount));
+   }
+
+   /**
+    * @return the bytecode of {@link #CLASS_COUNT} classes referencing the given number of classes each
+    */
+   private List<byte[]> writeClassFiles(final String name, final int fanOut) throws Exception {
+      final Path outputDir = tempDir.resolve(name);
+      final List<String> classNames = SyntheticCorpus.classNames("com/synthetic", CLASS_COUNT);
+      SyntheticCorpus.writeClassFiles(outputDir, classNames, fanOut, SyntheticCorpus.classNames("org/synthetic/lib", CLASS_COUNT));
+
+      final var classFiles = new ArrayList<byte[]>(classNames.size());
+      for (final String className : classNames) {
+         classFiles.add(Files.readAllBytes(outputDir.resolve(className + ".class")));
+      }
+      return classFiles;
+   }
+
+   private Artifact writeJar(final String name, final int classCount) throws Exception {
+      return SyntheticCorpus.newArtifact("org.synthetic", name, SyntheticCorpus.writeJar(tempDir.resolve(name + ".jar"), SyntheticCorpus
+         .classNames("org/synthetic/lib", classCount)));
+   }
+
+   @Test
+   void testBytesPerClassReference() throws Exception {
+      assertBytesPerClassReference(ClassAnalyzerEngine.ASM, ASM_MAX_BYTES_PER_CLASS_FILE_BYTE);
+      assertBytesPerClassReference(ClassAnalyzerEngine.CONSTANT_POOL, CONSTANT_POOL_MAX_BYTES_PER_CLASS_FILE_BYTE);
+   }
+
+   @Test
+   void testBytesPerJarEntry() throws Exception {
+      final Artifact smallArtifact = writeJar("small-lib", SMALL_JAR_ENTRY_COUNT);
+      final Artifact largeArtifact = writeJar("large-lib", LARGE_JAR_ENTRY_COUNT);
+
+      // the synthetic-corpus project disables all caches, so the JAR files are enumerated on each call
+      final var analyzer = new DepsAnalyzer(getMojo(getSession("synthetic-corpus"), CheckDepsMojo.MAVEN_GOAL));
+      assertBytesPerJarEntry(analyzer, smallArtifact, largeArtifact, false, PACKAGES_MAX_BYTES_PER_JAR_FILE_BYTE);
+      assertBytesPerJarEntry(analyzer, smallArtifact, largeArtifact, true, CLASS_NAMES_MAX_BYTES_PER_JAR_FILE_BYTE);
+   }
+}
@@ -0,0 +1,58 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the heap allocated by the current thread using the allocation counter of the {@link com.sun.management.ThreadMXBean}.
+ *
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+abstract class AllocationCounter {
+
+   @FunctionalInterface
+   interface Workload {
+      void run() throws Exception;
+   }
+
+   /**
+    * @return the number of bytes allocated by the current thread so far
+    */
+   static long getAllocatedBytes() {
+      // ThreadMXBean#getCurrentThreadAllocatedBytes() only exists since Java 14
+      return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread()
+         .getId());
+   }
+
+   /**
+    * @return true if the JVM counts the bytes allocated per thread
+    */
+   static boolean isSupported() {
+      final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+      return threadMXBean instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) threadMXBean)
+         .isThreadAllocatedMemorySupported();
+   }
+
+   /**
+    * Runs the given workload the given number of times for warm-up and then three times.
+    *
+    * @return the minimum number of bytes allocated by the measured runs
+    */
+   static long measure(final int warmUpRuns, final Workload workload) throws Exception {
+      for (int i = 0; i < warmUpRuns; i++) {
+         workload.run();
+      }
+
+      long allocatedBytes = Long.MAX_VALUE;
+      for (int i = 0; i < 3; i++) {
+         final long allocatedBefore = getAllocatedBytes();
+         workload.run();
+         allocatedBytes = Math.min(allocatedBytes, getAllocatedBytes() - allocatedBefore);
+      }
+      return allocatedBytes;
+   }
+}
@@ -0,0 +1,132 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+class ArtifactClassCacheTest {
+
+   /**
+    * @return classes in one package, i.e. an entry of the given size plus one for the package
+    */
+   private static ArtifactClasses classes(final String packageName, final int classCount) {
+      final var classNames = new HashSet<String>();
+      for (int i = 0; i < classCount; i++) {
+         classNames.add(packageName + "/C" + i);
+      }
+      return ArtifactClasses.of(classNames);
+   }
+
+   @TempDir
+   File tempDir;
+
+   private File newJarFile(final String name) throws IOException {
+      final var jarFile = new File(tempDir, name);
+      Files.writeString(jarFile.toPath(), name);
+      return jarFile;
+   }
+
+   @Test
+   void testBound() throws IOException {
+      final var cache = new ArtifactClassCache();
+      final File jar1 = newJarFile("a.jar");
+
+      // the cache is disabled until a limit is requested
+      cache.put(jar1, classes("a", 9));
+      assertThat(cache.get(jar1)).isNull();
+
+      cache.raiseMaxCachedClasses(100);
+      cache.raiseMaxCachedClasses(0);
+      cache.raiseMaxCachedClasses(50);
+      assertThat(cache.getMaxCachedClasses()).isEqualTo(100);
+
+      final ArtifactClasses classesOfJar1 = classes("a", 9);
+      cache.put(jar1, classesOfJar1);
+      assertThat(cache.get(jar1)).isSameAs(classesOfJar1);
+      assertThat(cache.getCachedClassesCount()).isEqualTo(10);
+
+      // replacing an entry, e.g. with one with materialized classes, does not count the replaced entry
+      final var packagesOfJar1 = new ArtifactClasses(Set.of("a"), 9, null);
+      cache.put(jar1, packagesOfJar1);
+      assertThat(cache.getCachedClassesCount()).isEqualTo(1);
+      cache.put(jar1, classesOfJar1);
+      assertThat(cache.getCachedClassesCount()).isEqualTo(10);
+   }
+
+   @Test
+   void testChangedFileIsNotServed() throws IOException {
+      final var cache = new ArtifactClassCache();
+      cache.raiseMaxCachedClasses(100);
+      final File jar = newJarFile("a.jar");
+      cache.put(jar, classes("a", 9));
+
+      Files.setLastModifiedTime(jar.toPath(), FileTime.fromMillis(jar.lastModified() + 2_000));
+      assertThat(cache.get(jar)).isNull();
+   }
+
+   @Test
+   void testLeastRecentlyUsedEviction() throws IOException {
+      final var cache = new ArtifactClassCache();
+      cache.raiseMaxCachedClasses(30);
+      final File jar1 = newJarFile("a.jar");
+      final File jar2 = newJarFile("b.jar");
+      final File jar3 = newJarFile("c.jar");
+      final File jar4 = newJarFile("d.jar");
+
+      cache.put(jar1, classes("a", 9));
+      cache.put(jar2, classes("b", 9));
+      cache.put(jar3, classes("c", 9));
+      assertThat(cache.getCachedClassesCount()).isEqualTo(30);
+
+      // makes jar1 the most recently used entry
+      assertThat(cache.get(jar1)).isNotNull();
+
+      cache.put(jar4, classes("d", 9));
+      assertThat(cache.get(jar2)).isNull();
+      assertThat(cache.get(jar1)).isNotNull();
+      assertThat(cache.get(jar3)).isNotNull();
+      assertThat(cache.get(jar4)).isNotNull();
+      assertThat(cache.getCachedClassesCount()).isEqualTo(30);
+
+      // a large entry evicts as many entries as required
+      cache.put(jar2, classes("b", 24));
+      assertThat(cache.get(jar2)).isNotNull();
+      assertThat(cache.get(jar1)).isNull();
+      assertThat(cache.get(jar3)).isNull();
+      assertThat(cache.get(jar4)).isNull();
+      assertThat(cache.getCachedClassesCount()).isEqualTo(25);
+   }
+
+   @Test
+   void testOversizeEntry() throws IOException {
+      final var cache = new ArtifactClassCache();
+      cache.raiseMaxCachedClasses(20);
+      final File jar1 = newJarFile("a.jar");
+      final File jar2 = newJarFile("b.jar");
+
+      cache.put(jar1, new ArtifactClasses(Set.of("a"), 50, null));
+      cache.put(jar2, classes("b", 9));
+
+      // an entry exceeding the limit on its own is not cached and does not evict other entries
+      final ArtifactClasses oversize = classes("a", 50);
+      assertThat(cache.put(jar1, oversize)).isSameAs(oversize);
+      assertThat(cache.get(jar1)).isNull();
+      assertThat(cache.get(jar2)).isNotNull();
+      assertThat(cache.getCachedClassesCount()).isEqualTo(10);
+   }
+}
@@ -0,0 +1,193 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+class ArtifactClassIndexTest {
+
+   private static final Set<String> CLASSES = Set.of("org/acme/Foo", "org/acme/Foo$Bar", "org/acme/util/Baz");
+
+   @TempDir
+   Path tempDir;
+
+   private Artifact artifact;
+   private ArtifactClassIndex index;
+   private Path indexDir;
+   private Path jarFile;
+
+   private void assertIndexed(final Set<String> expectedClasses) {
+      final ArtifactClasses packagesOnly = index.get(artifact, false);
+      assertThat(packagesOnly).isNotNull();
+      assertThat(packagesOnly.classCount).isEqualTo(expectedClasses.size());
+      assertThat(packagesOnly.packages).isEqualTo(ArtifactClasses.getPackages(expectedClasses));
+      assertThat(packagesOnly.isMaterialized()).isFalse();
+
+      final ArtifactClasses withClasses = index.get(artifact, true);
+      assertThat(withClasses).isNotNull();
+      assertThat(withClasses.classCount).isEqualTo(expectedClasses.size());
+      assertThat(withClasses.packages).isEqualTo(ArtifactClasses.getPackages(expectedClasses));
+      assertThat(withClasses.classes).isEqualTo(expectedClasses);
+   }
+
+   private Path getIndexFile() throws IOException {
+      try (Stream<Path> files = Files.walk(indexDir)) {
+         final List<Path> indexFiles = files.filter(Files::isRegularFile).collect(Collectors.toList());
+         assertThat(indexFiles).hasSize(1);
+         assertThat(indexFiles.get(0).getFileName()).hasToString("lib-" + SyntheticCorpus.VERSION + ".jar.idx");
+         return indexFiles.get(0);
+      }
+   }
+
+   @BeforeEach
+   void setUp() throws IOException {
+      jarFile = SyntheticCorpus.writeJar(tempDir.resolve("lib.jar"), List.copyOf(CLASSES));
+      artifact = SyntheticCorpus.newArtifact("org.acme", "lib", jarFile);
+      indexDir = tempDir.resolve("index");
+      index = new ArtifactClassIndex(indexDir, new SystemStreamLog());
+   }
+
+   @Test
+   void testAtomicReplace() throws IOException {
+      index.put(artifact, ArtifactClasses.of(CLASSES));
+      final Path indexFile = getIndexFile();
+
+      // a reader of the previous index file is not affected by replacing it
+      try (var reader = Files.newBufferedReader(indexFile, UTF_8)) {
+         index.put(artifact, ArtifactClasses.of(Set.of("org/acme/Qux")));
+         assertThat(reader.lines().filter(CLASSES::contains).count()).isEqualTo(CLASSES.size());
+      }
+      assertIndexed(Set.of("org/acme/Qux"));
+
+      // no temporary files are left behind
+      assertThat(getIndexFile()).isEqualTo(indexFile);
+   }
+
+   @Test
+   void testCorruptIndexFileIsIgnoredAndRewritten() throws IOException {
+      index.put(artifact, ArtifactClasses.of(CLASSES));
+      final Path indexFile = getIndexFile();
+      final List<String> lines = Files.readAllLines(indexFile, UTF_8);
+
+      // truncated within the declared classes
+      Files.write(indexFile, lines.subList(0, lines.size() - 1), UTF_8);
+      assertThat(index.get(artifact, false)).isNotNull();
+      assertThat(index.get(artifact, true)).isNull();
+
+      // truncated within the declared packages
+      Files.write(indexFile, lines.subList(0, 4), UTF_8);
+      assertThat(index.get(artifact, false)).isNull();
+      assertThat(index.get(artifact, true)).isNull();
+
+      // garbage counts
+      Files.write(indexFile, List.of(lines.get(0), lines.get(1), "three two"), UTF_8);
+      assertThat(index.get(artifact, false)).isNull();
+
+      // binary garbage
+      Files.write(indexFile, new byte[] {(byte) 0xFF, 0, (byte) 0xFE, 10, 0});
+      assertThat(index.get(artifact, false)).isNull();
+
+      index.put(artifact, ArtifactClasses.of(CLASSES));
+      assertIndexed(CLASSES);
+   }
+
+   @Test
+   void testFormatVersionMismatch() throws IOException {
+      index.put(artifact, ArtifactClasses.of(CLASSES));
+      final Path indexFile = getIndexFile();
+      final List<String> lines = Files.readAllLines(indexFile, UTF_8);
+      assertThat(lines.get(0)).startsWith("depcheck-artifact-index:");
+
+      lines.set(0, "depcheck-artifact-index:2");
+      Files.write(indexFile, lines, UTF_8);
+      assertThat(index.get(artifact, false)).isNull();
+      assertThat(index.get(artifact, true)).isNull();
+   }
+
+   @Test
+   void testInvalidationOnChangedChecksum() throws IOException {
+      final Path checksumFile = tempDir.resolve("lib.jar.sha1");
+      Files.writeString(checksumFile, "da39a3ee5e6b4b0d3255bfef95601890afd80709  lib.jar", UTF_8);
+      index.put(artifact, ArtifactClasses.of(CLASSES));
+      assertIndexed(CLASSES);
+
+      Files.writeString(checksumFile, "0123456789abcdef0123456789abcdef01234567", UTF_8);
+      assertThat(index.get(artifact, false)).isNull();
+
+      Files.delete(checksumFile);
+      assertThat(index.get(artifact, false)).isNull();
+   }
+
+   @Test
+   void testInvalidationOnChangedLastModified() throws IOException {
+      index.put(artifact, ArtifactClasses.of(CLASSES));
+      assertIndexed(CLASSES);
+
+      final FileTime lastModified = Files.getLastModifiedTime(jarFile);
+      Files.setLastModifiedTime(jarFile, FileTime.fromMillis(lastModified.toMillis() + 2_000));
+      assertThat(index.get(artifact, false)).isNull();
+
+      Files.setLastModifiedTime(jarFile, lastModified);
+      assertIndexed(CLASSES);
+   }
+
+   @Test
+   void testInvalidationOnChangedSize() throws IOException {
+      index.put(artifact, ArtifactClasses.of(CLASSES));
+      assertIndexed(CLASSES);
+
+      // same last modification time, different size
+      final FileTime lastModified = Files.getLastModifiedTime(jarFile);
+      SyntheticCorpus.writeJar(jarFile, List.of("org/acme/Foo"));
+      Files.setLastModifiedTime(jarFile, lastModified);
+      assertThat(index.get(artifact, false)).isNull();
+      assertThat(index.get(artifact, true)).isNull();
+   }
+
+   @Test
+   void testRoundTrip() throws IOException {
+      assertThat(index.get(artifact, false)).isNull();
+
+      index.put(artifact, ArtifactClasses.of(CLASSES));
+      assertIndexed(CLASSES);
+      assertThat(getIndexFile()).startsWith(indexDir.resolve("org.acme").resolve("lib").resolve(SyntheticCorpus.VERSION));
+
+      // a new instance reads the index file written by another build
+      index = new ArtifactClassIndex(indexDir, new SystemStreamLog());
+      assertIndexed(CLASSES);
+   }
+
+   @Test
+   void testRoundTripWithoutClasses() throws IOException {
+      index.put(artifact, new ArtifactClasses(ArtifactClasses.getPackages(CLASSES), CLASSES.size(), null));
+
+      final ArtifactClasses packagesOnly = index.get(artifact, false);
+      assertThat(packagesOnly).isNotNull();
+      assertThat(packagesOnly.classCount).isEqualTo(CLASSES.size());
+      assertThat(packagesOnly.packages).containsExactlyInAnyOrder("org/acme", "org/acme/util");
+
+      // the index file cannot serve requests for the class names
+      assertThat(index.get(artifact, true)).isNull();
+   }
+}
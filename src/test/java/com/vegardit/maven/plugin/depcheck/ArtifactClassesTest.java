@@ -0,0 +1,38 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+class ArtifactClassesTest {
+
+   @Test
+   void testDeclaresAnyPackageOf() {
+      final var artifactClasses = ArtifactClasses.of(Set.of("com/acme/Foo", "com/acme/Foo$Bar", "com/acme/util/Baz"));
+      assertThat(artifactClasses.classCount).isEqualTo(3);
+      assertThat(artifactClasses.isMaterialized()).isTrue();
+
+      assertThat(artifactClasses.declaresAnyPackageOf(ArtifactClasses.getPackages(Set.of("com/acme/util/Baz")))).isTrue();
+      assertThat(artifactClasses.declaresAnyPackageOf(ArtifactClasses.getPackages(Set.of("com/acme/Foo$Bar")))).isTrue();
+      assertThat(artifactClasses.declaresAnyPackageOf(ArtifactClasses.getPackages(Set.of("com/acme/Foo/Bar")))).isFalse();
+      assertThat(artifactClasses.declaresAnyPackageOf(ArtifactClasses.getPackages(Set.of("org/acme/Foo")))).isFalse();
+      assertThat(artifactClasses.declaresAnyPackageOf(ArtifactClasses.getPackages(Set.of("Foo")))).isFalse();
+      assertThat(ArtifactClasses.EMPTY.declaresAnyPackageOf(ArtifactClasses.getPackages(Set.of("com/acme/Foo")))).isFalse();
+   }
+
+   @Test
+   void testGetPackages() {
+      assertThat(ArtifactClasses.getPackages(Set.of("Foo"))).containsExactly("");
+      assertThat(ArtifactClasses.getPackages(Set.of("com/acme/Foo$Bar", "com/acme/Baz", "com/acme/util/Qux"))) //
+         .containsExactlyInAnyOrder("com/acme", "com/acme/util");
+   }
+}
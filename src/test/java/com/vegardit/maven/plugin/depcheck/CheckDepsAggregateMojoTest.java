@@ -0,0 +1,70 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Arrays;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.repository.RepositorySystem;
+import org.junit.jupiter.api.Test;
+
+import com.vegardit.maven.util.AbstractMavenTest;
+
+import net.sf.jstuff.core.collection.Sets;
+
+/**
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+class CheckDepsAggregateMojoTest extends AbstractMavenTest {
+
+   @Test
+   void testReportsViolationsOfAllModules() throws Exception {
+      final MavenSession sess = getSession("project-with-used-transitive-dep");
+
+      // workaround for mavenProject.getArtifacts() returning null when run as test case
+      final RepositorySystem repositorySystem = maven.lookup(RepositorySystem.class);
+      sess.getCurrentProject().setArtifacts(Sets.newHashSet(repositorySystem.createArtifact("org.apache.commons", "commons-lang3", "3.12.0",
+         "jar")));
+
+      final MavenProject projectWithUnusedDep = maven.readMavenProject(testResources.getBasedir("project-with-unused-dep"));
+      projectWithUnusedDep.setArtifactId("dummy-with-unused-dep"); // modules of a reactor have distinct coordinates
+      sess.setProjects(Arrays.asList(sess.getCurrentProject(), projectWithUnusedDep));
+
+      final CheckDepsAggregateMojo mojo = getMojo(sess, CheckDepsAggregateMojo.MAVEN_GOAL);
+      assertThat(mojo.isAggregator()).isTrue();
+      assertThat(mojo.getReactorProjects()).hasSize(2);
+
+      mojo.checkForUnusedDependencies = true;
+      mojo.checkForUsedTransitiveDependencies = true;
+      mojo.failFast = false;
+      mojo.failIfUnusedDependencies = true;
+      mojo.failIfUsedTransitiveDependencies = true;
+      try {
+         mojo.execute();
+         failBecauseExceptionWasNotThrown(MojoExecutionException.class);
+      } catch (final MojoExecutionException ex) {
+         assertThat(ex.getMessage()) //
+            .contains("used transitive dependency: org.apache.commons:commons-lang3:jar:3.12.0") //
+            .contains("unused direct dependency: org.apache.commons:commons-lang3:jar:3.18.0");
+
+         // the report lists the modules in reactor order
+         assertThat(ex.getMessage().indexOf("For dummy:dummy:")).isLessThan(ex.getMessage().indexOf("For dummy:dummy-with-unused-dep:"));
+      }
+
+      // the aggregate goal reports the same violations as the check-deps goal for the same module
+      final CheckDepsMojo checkDepsMojo = getMojo(getSession("project-with-unused-dep"), CheckDepsMojo.MAVEN_GOAL);
+      checkDepsMojo.failIfUnusedDependencies = true;
+      try {
+         checkDepsMojo.execute();
+         failBecauseExceptionWasNotThrown(MojoExecutionException.class);
+      } catch (final MojoExecutionException ex) {
+         assertThat(ex.getMessage()).contains("unused direct dependency: org.apache.commons:commons-lang3:jar");
+      }
+   }
+}
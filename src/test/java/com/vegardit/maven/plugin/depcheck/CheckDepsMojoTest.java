@@ -6,13 +6,26 @@
 
 import static org.assertj.core.api.Assertions.*;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.project.MavenProject;
 import org.apache.maven.repository.RepositorySystem;
 import org.junit.jupiter.api.Test;
 
 import com.vegardit.maven.util.AbstractMavenTest;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import net.sf.jstuff.core.collection.Sets;
 
 /**
@@ -33,6 +46,135 @@ void testConfig() throws Exception {
       assertThat(mojo.isVerbose()).isTrue();
    }
 
+   @Test
+   void testFailFastCancellation() throws Exception {
+      MavenSession sess = getSession("project-with-used-transitive-dep");
+
+      // workaround for mavenProject.getArtifacts() returning null when run as test case
+      final RepositorySystem repositorySystem = maven.lookup(RepositorySystem.class);
+      sess.getCurrentProject().setArtifacts(Sets.newHashSet(repositorySystem.createArtifact("org.apache.commons", "commons-lang3", "3.12.0",
+         "jar")));
+
+      CheckDepsMojo mojo = getMojo(sess, CheckDepsMojo.MAVEN_GOAL);
+      mojo.checkForUnusedDependencies = false;
+      mojo.failFast = true;
+      mojo.failIfUsedTransitiveDependencies = true;
+
+      // a violation confirmed by the analysis cancels the analyses of all other projects of the execution
+      assertThat(mojo.getCancellationToken().isCancelled()).isFalse();
+      try {
+         mojo.execute();
+         failBecauseExceptionWasNotThrown(MojoExecutionException.class);
+      } catch (final MojoExecutionException ex) {
+         assertThat(ex).isNotInstanceOf(CancellationToken.CancelledException.class);
+         assertThat(ex.getMessage()).contains("used transitive dependency: org.apache.commons:commons-lang3:jar");
+      }
+      assertThat(mojo.getCancellationToken().isCancelled()).isTrue();
+      final CheckDepsMojo mojoOfSameExecution = getMojo(sess, CheckDepsMojo.MAVEN_GOAL);
+      mojoOfSameExecution.failFast = true;
+      assertThat(mojoOfSameExecution.getCancellationToken()).isSameAs(mojo.getCancellationToken());
+
+      // an analysis of an execution that was already cancelled stops right away
+      sess = getSession("project-with-used-transitive-dep");
+      mojo = getMojo(sess, CheckDepsMojo.MAVEN_GOAL);
+      mojo.failFast = true;
+      mojo.getCancellationToken().cancel("another module uses transitive dependencies");
+      try {
+         mojo.execute();
+         failBecauseExceptionWasNotThrown(MojoExecutionException.class);
+      } catch (final CancellationToken.CancelledException ex) {
+         assertThat(ex.getMessage()).isEqualTo("Analysis cancelled: another module uses transitive dependencies");
+      }
+   }
+
+   @Test
+   void testFailingProjectStopsWorkerThreads() throws Exception {
+      final MavenSession sess = getSession("project-with-used-transitive-dep");
+
+      // workaround for mavenProject.getArtifacts() returning null when run as test case
+      final RepositorySystem repositorySystem = maven.lookup(RepositorySystem.class);
+      sess.getCurrentProject().setArtifacts(Sets.newHashSet(repositorySystem.createArtifact("org.apache.commons", "commons-lang3", "3.12.0",
+         "jar")));
+
+      final MavenProject projectWithUnusedDep = maven.readMavenProject(testResources.getBasedir("project-with-unused-dep"));
+      projectWithUnusedDep.setArtifactId("dummy-with-unused-dep"); // modules of a reactor have distinct coordinates
+      sess.setProjects(Arrays.asList(sess.getCurrentProject(), projectWithUnusedDep));
+
+      final CheckDepsMojo mojo = getMojo(sess, CheckDepsMojo.MAVEN_GOAL);
+      mojo.checkForUnusedDependencies = false;
+      mojo.failFast = true;
+      mojo.failIfUsedTransitiveDependencies = true;
+      mojo.threads = 2;
+
+      // the build stops after the failing first project, i.e. the goal is never executed for the second project of the reactor
+      try {
+         mojo.execute();
+         failBecauseExceptionWasNotThrown(MojoExecutionException.class);
+      } catch (final MojoExecutionException ex) {
+         assertThat(ex.getMessage()).contains("used transitive dependency: org.apache.commons:commons-lang3:jar");
+      }
+
+      assertThat(SharedScheduler.isRunning()).isFalse();
+      for (final Thread thread : Thread.getAllStackTraces().keySet()) {
+         if (thread.getName().startsWith("depcheck-worker-")) {
+            thread.join(10_000);
+            assertThat(thread.isAlive()).describedAs(thread.getName()).isFalse();
+         }
+      }
+   }
+
+   @Test
+   void testFlightRecorderEvents() throws Exception {
+      final MavenSession sess = getSession("project-with-used-transitive-dep");
+
+      // workaround for mavenProject.getArtifacts() returning null when run as test case
+      final RepositorySystem repositorySystem = maven.lookup(RepositorySystem.class);
+      sess.getCurrentProject().setArtifacts(Sets.newHashSet(repositorySystem.createArtifact("org.apache.commons", "commons-lang3", "3.12.0",
+         "jar")));
+
+      final CheckDepsMojo mojo = getMojo(sess, CheckDepsMojo.MAVEN_GOAL);
+      mojo.useClassFileCache = false;
+
+      final Path recordingFile = Files.createTempFile("depcheck", ".jfr");
+      final List<RecordedEvent> events;
+      try (var recording = new Recording()) {
+         for (final String eventName : List.of("ArtifactResolution", "depcheck.ModuleScan", "depcheck.JarEnumeration",
+            "depcheck.ClassFileBatch")) {
+            recording.enable("com.vegardit.maven." + eventName);
+         }
+         recording.start();
+         new DepsAnalyzer(mojo).scan(false, true);
+         recording.stop();
+         recording.dump(recordingFile);
+         events = RecordingFile.readAllEvents(recordingFile);
+      } finally {
+         Files.deleteIfExists(recordingFile);
+      }
+
+      final Map<String, List<RecordedEvent>> eventsByName = events.stream().collect(Collectors.groupingBy(event -> event.getEventType()
+         .getName()));
+      assertThat(eventsByName.get("com.vegardit.maven.depcheck.ModuleScan")).singleElement().satisfies(event -> {
+         assertThat(event.getString("module")).isEqualTo("dummy:dummy:1.0-SNAPSHOT");
+         assertThat(event.getLong("classFilesParsed")).isEqualTo(1);
+         assertThat(event.getBoolean("partial")).isFalse();
+      });
+      assertThat(eventsByName.get("com.vegardit.maven.depcheck.ClassFileBatch")).singleElement().satisfies(event -> assertThat(event.getInt(
+         "classFilesParsed")).isEqualTo(1));
+      assertThat(eventsByName.get("com.vegardit.maven.depcheck.JarEnumeration")) //
+         .extracting(event -> event.getString("artifact")) //
+         .anyMatch(artifact -> artifact.startsWith("net.sf.jstuff:jstuff-core:jar")) //
+         .anyMatch(artifact -> artifact.startsWith("org.apache.commons:commons-lang3:jar"));
+      assertThat(eventsByName.get("com.vegardit.maven.ArtifactResolution")) //
+         .filteredOn(event -> event.getString("artifacts").contains("org.apache.commons:commons-lang3:jar")) //
+         .isNotEmpty() //
+         .allSatisfy(event -> {
+            assertThat(event.getString("module")).isEqualTo("dummy:dummy:1.0-SNAPSHOT");
+            assertThat(event.getInt("artifactCount")).isPositive();
+            assertThat(event.getInt("resolvedCount")).isEqualTo(event.getInt("artifactCount"));
+            assertThat(event.getLong("bytes")).isPositive();
+         });
+   }
+
    @Test
    void testFindUnusedDep() throws Exception {
       final CheckDepsMojo mojo = getMojo(getSession("project-with-unused-dep"), CheckDepsMojo.MAVEN_GOAL);
@@ -55,6 +197,118 @@ void testFindUnusedDep() throws Exception {
       mojo.execute();
    }
 
+   @Test
+   void testStats() throws Exception {
+      final MavenSession sess = getSession("project-with-used-transitive-dep");
+
+      // workaround for mavenProject.getArtifacts() returning null when run as test case
+      final RepositorySystem repositorySystem = maven.lookup(RepositorySystem.class);
+      sess.getCurrentProject().setArtifacts(Sets.newHashSet(repositorySystem.createArtifact("org.apache.commons", "commons-lang3", "3.12.0",
+         "jar")));
+
+      final CheckDepsMojo mojo = getMojo(sess, CheckDepsMojo.MAVEN_GOAL);
+      mojo.artifactCacheMaxClasses = 0;
+      mojo.failIfUsedTransitiveDependencies = false;
+      mojo.upToDateCheck = false;
+      mojo.useArtifactIndex = false;
+      mojo.useClassFileCache = false;
+
+      final var analyzer = new DepsAnalyzer(mojo);
+      assertThat(analyzer.scan(false, true).hasDirectlyUsedTransitiveDependencies()).isTrue();
+      final ScanMetrics metrics = analyzer.getMetrics();
+      assertThat(metrics.getWallTimeNanos()).isPositive();
+
+      final Path classFile = Paths.get(sess.getCurrentProject().getBuild().getOutputDirectory(), "Main.class");
+      final ScanMetrics.Counters outputDirScan = metrics.get(ScanMetrics.Phase.OUTPUT_DIRECTORY_SCAN);
+      assertThat(outputDirScan.classFilesParsed.sum()).isEqualTo(1);
+      assertThat(outputDirScan.bytesRead.sum()).isEqualTo(Files.size(classFile));
+
+      final ScanMetrics.Counters resolution = metrics.get(ScanMetrics.Phase.RESOLUTION);
+      assertThat(resolution.cacheHits.sum() + resolution.cacheMisses.sum()).isEqualTo(2);
+
+      // with all caches disabled every dependency JAR is enumerated
+      final ScanMetrics.Counters directIndexing = metrics.get(ScanMetrics.Phase.DIRECT_DEPENDENCY_INDEXING);
+      assertThat(directIndexing.cacheHits.sum()).isZero();
+      assertThat(directIndexing.cacheMisses.sum()).isEqualTo(1);
+      assertThat(directIndexing.jarEntriesRead.sum()).isPositive();
+      assertThat(directIndexing.bytesRead.sum()).isPositive();
+      final ScanMetrics.Counters transIndexing = metrics.get(ScanMetrics.Phase.TRANSITIVE_DEPENDENCY_INDEXING);
+      assertThat(transIndexing.cacheHits.sum()).isZero();
+      assertThat(transIndexing.cacheMisses.sum()).isPositive();
+      assertThat(transIndexing.jarEntriesRead.sum()).isPositive();
+      assertThat(metrics.get(ScanMetrics.Phase.MATCHING).jarEntriesRead.sum()).isZero();
+
+      // the stats files are only written on request
+      assertThat(mojo.writeStats).isFalse();
+      mojo.execute();
+      assertThat(mojo.getStatsFile(sess.getCurrentProject(), "stats")).doesNotExist();
+      assertThat(mojo.getStatsFile(sess.getCurrentProject(), "reactor-stats")).doesNotExist();
+
+      mojo.writeStats = true;
+      mojo.execute();
+      assertThat(mojo.getStatsFile(sess.getCurrentProject(), "stats")).content() //
+         .contains("\"module\": \"dummy:dummy:1.0-SNAPSHOT\"", "\"transitiveDependencyIndexing\": {", "\"classFilesParsed\": 1,");
+      assertThat(mojo.getStatsFile(sess.getCurrentProject(), "reactor-stats")).content() //
+         .contains("\"modules\": 1,", "\"moduleStats\": [", "\"module\": \"dummy:dummy:1.0-SNAPSHOT\"");
+   }
+
+   @Test
+   void testUpToDateCheck() throws Exception {
+      final MavenSession sess = getSession("project-with-used-transitive-dep");
+
+      // workaround for mavenProject.getArtifacts() returning null when run as test case
+      final RepositorySystem repositorySystem = maven.lookup(RepositorySystem.class);
+      sess.getCurrentProject().setArtifacts(Sets.newHashSet(repositorySystem.createArtifact("org.apache.commons", "commons-lang3", "3.12.0",
+         "jar")));
+
+      final CheckDepsMojo mojo = getMojo(sess, CheckDepsMojo.MAVEN_GOAL);
+      mojo.checkForUnusedDependencies = false;
+      mojo.checkForUsedTransitiveDependencies = true;
+      mojo.failFast = true;
+      mojo.failIfUsedTransitiveDependencies = false;
+      assertThat(mojo.upToDateCheck).isTrue();
+
+      mojo.execute();
+      final Path scanResultFile = mojo.getScanResultFile();
+      assertThat(scanResultFile).content() //
+         .contains("used org.apache.commons:commons-lang3:jar:3.12.0 org/apache/commons/lang3/StringUtils");
+
+      // the stored result is reused as long as no input changed
+      final var analyzer = new DepsAnalyzer(mojo);
+      final String fingerprint = analyzer.computeInputFingerprint(false, true);
+      assertThat(scanResultFile).content().contains(fingerprint);
+      assertThat(analyzer.computeInputFingerprint(true, true)).isNotEqualTo(fingerprint);
+
+      // a different Java runtime may provide different platform classes
+      final String javaVersion = System.getProperty("java.version");
+      try {
+         System.setProperty("java.version", javaVersion + "-other");
+         assertThat(analyzer.computeInputFingerprint(false, true)).isNotEqualTo(fingerprint);
+      } finally {
+         System.setProperty("java.version", javaVersion);
+      }
+
+      Files.writeString(scanResultFile, Files.readString(scanResultFile).replace("StringUtils", "StoredStringUtils"));
+      mojo.failIfUsedTransitiveDependencies = true;
+      try {
+         mojo.execute();
+         failBecauseExceptionWasNotThrown(MojoExecutionException.class);
+      } catch (final MojoExecutionException ex) {
+         assertThat(ex.getMessage()).contains("(using e.g. org.apache.commons.lang3.StoredStringUtils)");
+      }
+
+      // a modified class file invalidates the stored result
+      final Path classFile = Paths.get(sess.getCurrentProject().getBuild().getOutputDirectory(), "Main.class");
+      Files.setLastModifiedTime(classFile, FileTime.fromMillis(Files.getLastModifiedTime(classFile).toMillis() + 2_000));
+      assertThat(new DepsAnalyzer(mojo).computeInputFingerprint(false, true)).isNotEqualTo(fingerprint);
+      try {
+         mojo.execute();
+         failBecauseExceptionWasNotThrown(MojoExecutionException.class);
+      } catch (final MojoExecutionException ex) {
+         assertThat(ex.getMessage()).contains("(using e.g. org.apache.commons.lang3.StringUtils)");
+      }
+   }
+
    @Test
    void testUsedTransDeps() throws Exception {
 
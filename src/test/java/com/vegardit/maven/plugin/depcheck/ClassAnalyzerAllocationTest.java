@@ -0,0 +1,121 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+
+import net.sf.jstuff.core.Strings;
+import net.sf.jstuff.core.collection.Enumerations;
+import net.sf.jstuff.core.logging.Logger;
+
+/**
+ * Measures the heap allocated by {@link AbstractClassAnalyzer} per reported class reference when parsing the classes of the ASM and
+ * jstuff-core JARs with one reused analyzer, as done by {@link DepsAnalyzer} for the class files of a batch, and compares it with the
+ * previous hot path using a fresh analyzer and an input stream per class file.
+ *
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+class ClassAnalyzerAllocationTest {
+
+   private static final Logger LOG = Logger.create();
+
+   /*
+    * Upper bounds of the heap allocated per reported class reference by a reused analyzer, about 1.5 times the allocations measured on
+    * Java 17 and 21 (87 and 144 bytes). The previous hot path allocated 216 and 518 bytes per reference.
+    */
+   private static final long ASM_MAX_BYTES_PER_REFERENCE = 130;
+   private static final long CONSTANT_POOL_MAX_BYTES_PER_REFERENCE = 220;
+
+   private static final class CountingAnalyzer extends AbstractClassAnalyzer {
+      long classReferences;
+      final Set<String> referencedClasses;
+
+      CountingAnalyzer(final Set<String> referencedClasses) {
+         super(Opcodes.ASM9);
+         this.referencedClasses = referencedClasses;
+      }
+
+      @Override
+      protected void onClassName(final String nameOfReferencedClass) {
+         // not relevant
+      }
+
+      @Override
+      protected void onClassReference(final String nameOfReferencedClass) {
+         classReferences++;
+         referencedClasses.add(nameOfReferencedClass);
+      }
+   }
+
+   /**
+    * @return the byte code of all classes of the JAR file containing the given class
+    */
+   private static List<byte[]> loadClassesOfJar(final Class<?> clazz) throws Exception {
+      final var classes = new ArrayList<byte[]>();
+      try (var jar = new JarFile(new File(clazz.getProtectionDomain().getCodeSource().getLocation().toURI()))) {
+         for (final JarEntry jarEntry : Enumerations.toIterable(jar.entries())) {
+            if (jarEntry.getName().endsWith(".class") && !jarEntry.getName().contains("-info")) {
+               try (var in = jar.getInputStream(jarEntry)) {
+                  classes.add(in.readAllBytes());
+               }
+            }
+         }
+      }
+      return classes;
+   }
+
+   @Test
+   void testBytesPerClassReference() throws Exception {
+      assumeTrue(AllocationCounter.isSupported());
+
+      final var classes = new ArrayList<byte[]>();
+      classes.addAll(loadClassesOfJar(ClassReader.class));
+      classes.addAll(loadClassesOfJar(Strings.class));
+
+      for (final ClassAnalyzerEngine engine : ClassAnalyzerEngine.values()) {
+         // the result sets are filled by the warm-up runs, so that the measured runs do not allocate set entries
+         final var referencedByFresh = new HashSet<String>();
+         final long allocatedByFresh = AllocationCounter.measure(3, () -> {
+            for (final byte[] classByteCode : classes) {
+               new CountingAnalyzer(referencedByFresh).scan(new ByteArrayInputStream(classByteCode), engine);
+            }
+         });
+
+         final var reusedAnalyzer = new CountingAnalyzer(new HashSet<>());
+         final AllocationCounter.Workload scanWithReusedAnalyzer = () -> {
+            for (final byte[] classByteCode : classes) {
+               reusedAnalyzer.scan(classByteCode, engine);
+            }
+         };
+         final long allocatedByReused = AllocationCounter.measure(3, scanWithReusedAnalyzer);
+         assertThat(reusedAnalyzer.referencedClasses).isEqualTo(referencedByFresh);
+
+         reusedAnalyzer.classReferences = 0;
+         scanWithReusedAnalyzer.run();
+         final long referencesPerRun = reusedAnalyzer.classReferences;
+         final long bytesPerReferenceOfFresh = allocatedByFresh / referencesPerRun;
+         final long bytesPerReference = allocatedByReused / referencesPerRun;
+         LOG.info("%s engine: %,d classes with %,d class references scanned, %,d bytes allocated per reference (%,d with fresh analyzers)",
+            engine, classes.size(), referencesPerRun, bytesPerReference, bytesPerReferenceOfFresh);
+
+         assertThat(bytesPerReference).as(engine + " engine bytes per class reference").isLessThanOrEqualTo(
+            engine == ClassAnalyzerEngine.CONSTANT_POOL ? CONSTANT_POOL_MAX_BYTES_PER_REFERENCE : ASM_MAX_BYTES_PER_REFERENCE);
+      }
+   }
+}
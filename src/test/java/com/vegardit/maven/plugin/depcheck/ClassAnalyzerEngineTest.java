@@ -0,0 +1,51 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+/**
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+class ClassAnalyzerEngineTest {
+
+   private static Set<String> scan(final Class<?> clazz, final ClassAnalyzerEngine engine) throws IOException {
+      final var referencedClasses = new HashSet<String>();
+      try (InputStream classByteCode = clazz.getResourceAsStream(clazz.getSimpleName() + ".class")) {
+         new AbstractClassAnalyzer(Opcodes.ASM9) {
+            @Override
+            protected void onClassName(final String nameOfReferencedClass) {
+               assertThat(nameOfReferencedClass).isEqualTo(Type.getInternalName(clazz));
+            }
+
+            @Override
+            protected void onClassReference(final String nameOfReferencedClass) {
+               referencedClasses.add(nameOfReferencedClass);
+            }
+         }.scan(classByteCode, engine);
+      }
+      return referencedClasses;
+   }
+
+   @Test
+   void testConstantPoolEngine() throws IOException {
+      for (final Class<?> clazz : new Class<?>[] {DepsAnalyzer.class, AbstractClassAnalyzer.class, CheckDepsMojo.class}) {
+         final Set<String> referencedByASM = scan(clazz, ClassAnalyzerEngine.ASM);
+         final Set<String> referencedByConstantPool = scan(clazz, ClassAnalyzerEngine.CONSTANT_POOL);
+
+         assertThat(referencedByASM).isNotEmpty();
+         assertThat(referencedByConstantPool).containsAll(referencedByASM);
+      }
+   }
+}
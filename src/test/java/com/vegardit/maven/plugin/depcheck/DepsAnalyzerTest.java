@@ -6,26 +6,269 @@
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
 
 import com.vegardit.maven.util.AbstractMavenTest;
 import com.vegardit.maven.util.DummyArtifact;
+import com.vegardit.maven.util.MavenUtils;
+
+import net.sf.jstuff.core.collection.tuple.Tuple2;
 
 /**
  * @author Sebastian Thomschke, Vegard IT GmbH
  */
 class DepsAnalyzerTest extends AbstractMavenTest {
 
+   /**
+    * Writes the class file of a class with a field of the given type.
+    */
+   private static Path writeClassFile(final Path classDirectory, final String className, final String fieldType) throws IOException {
+      final var classWriter = new ClassWriter(0);
+      classWriter.visit(Opcodes.V11, Opcodes.ACC_PUBLIC, className, null, "java/lang/Object", null);
+      classWriter.visitField(Opcodes.ACC_PUBLIC, "field", "L" + fieldType + ";", null, null).visitEnd();
+      classWriter.visitEnd();
+
+      final Path classFile = classDirectory.resolve(className + ".class");
+      Files.createDirectories(classFile.getParent());
+      return Files.write(classFile, classWriter.toByteArray());
+   }
+
+   @TempDir
+   Path tempDir;
+
+   private CheckDepsMojo newSyntheticCorpusMojo(final MavenProject module) throws Exception {
+      final MavenSession session = getSession("synthetic-corpus");
+      session.setProjects(List.of(module));
+      return getMojo(session, CheckDepsMojo.MAVEN_GOAL);
+   }
+
+   private Set<String> scan(final DepsAnalyzer da, final Path classDirectory, final ClassFileCache cache, final boolean declared)
+         throws IOException {
+      final var symbols = new SymbolTable();
+      final Tuple2<BitSet, BitSet> result = da.scanDirectoryForDeclaredAndReferencedClasses(classDirectory, symbols, cache);
+      return new HashSet<>(symbols.namesOf(declared ? result.get1() : result.get2()));
+   }
+
+   /**
+    * If multiple direct dependencies declare a referenced class, the class is attributed to the first of them and the others are
+    * reported as unused.
+    */
+   @Test
+   void testAttributionToFirstDeclaringDirectDependency() throws Exception {
+      final List<String> sharedClasses = SyntheticCorpus.classNames("org/synthetic/shared", 20);
+      final var libs = new ArrayList<Artifact>();
+      for (int i = 0; i < 3; i++) {
+         libs.add(SyntheticCorpus.newArtifact("org.synthetic", "lib" + i, SyntheticCorpus.writeJar(tempDir.resolve("lib" + i + ".jar"),
+            sharedClasses)));
+      }
+
+      final MavenProject module = SyntheticCorpus.newModule(tempDir.resolve("module"), "com.synthetic", "module");
+      SyntheticCorpus.writeClassFiles(Path.of(module.getBuild().getOutputDirectory()), SyntheticCorpus.classNames("com/synthetic", 10), 4,
+         sharedClasses);
+      SyntheticCorpus.setDependencies(module, libs, List.of());
+      final CheckDepsMojo mojo = newSyntheticCorpusMojo(module);
+
+      final var directDeps = new ArrayList<>(MavenUtils.withoutRuntimeAndTestScoped(mojo.getDirectDependencies(module)));
+      final DepsAnalyzer.ScanResult result = new DepsAnalyzer(mojo, module, null, null).scan(true, true);
+      assertThat(result.unusedDirectDependencies).containsExactlyInAnyOrderElementsOf(directDeps.subList(1, directDeps.size()));
+      assertThat(result.usedClassesOfTransitiveDependencies).isEmpty();
+   }
+
+   /**
+    * The concurrent resolution and scanning of dependencies must attribute the referenced classes exactly like a sequential analysis,
+    * i.e. classes declared by multiple transitive dependencies are attributed to the last of them in the order of the dependencies.
+    */
+   @Test
+   void testAttributionOfParallelScanMatchesSequentialScan() throws Exception {
+      // transitive dependency i declares the shared classes i to i + 3, and the larger earlier dependencies take longer to scan
+      final int transDepCount = 12;
+      final List<String> sharedClasses = SyntheticCorpus.classNames("org/synthetic/shared", transDepCount);
+      final var referencedClasses = new ArrayList<>(sharedClasses);
+      final var classesDeclaredByTransDeps = new HashMap<Artifact, List<String>>();
+      for (int i = 0; i < transDepCount; i++) {
+         final var declaredClasses = new ArrayList<>(SyntheticCorpus.classNames("org/synthetic/lib" + i, 100 + (transDepCount - i)
+               * 2_000));
+         referencedClasses.add(declaredClasses.get(i));
+         declaredClasses.addAll(sharedClasses.subList(i, Math.min(i + 4, transDepCount)));
+         classesDeclaredByTransDeps.put(SyntheticCorpus.newArtifact("org.synthetic", "lib" + i, SyntheticCorpus.writeJar(tempDir.resolve(
+            "lib" + i + ".jar"), declaredClasses)), declaredClasses);
+      }
+
+      // the direct dependency declares the first shared class
+      final Artifact directDep = SyntheticCorpus.newArtifact("org.synthetic", "direct", SyntheticCorpus.writeJar(tempDir.resolve(
+         "direct.jar"), sharedClasses.subList(0, 1)));
+
+      final MavenProject module = SyntheticCorpus.newModule(tempDir.resolve("module"), "com.synthetic", "module");
+      SyntheticCorpus.writeClassFiles(Path.of(module.getBuild().getOutputDirectory()), SyntheticCorpus.classNames("com/synthetic", 50), 4,
+         referencedClasses);
+      SyntheticCorpus.setDependencies(module, List.of(directDep), classesDeclaredByTransDeps.keySet());
+      final CheckDepsMojo mojo = newSyntheticCorpusMojo(module);
+
+      // expected attribution of the sequential analysis: the last transitive dependency declaring a class wins
+      final var expected = new HashMap<Artifact, Set<String>>();
+      final var unattributedClasses = new HashSet<>(referencedClasses);
+      unattributedClasses.remove(sharedClasses.get(0));
+      final var transDeps = new ArrayList<>(MavenUtils.withoutRuntimeAndTestScoped(mojo.getTransitiveDependencies(module)));
+      for (int i = transDeps.size() - 1; i >= 0; i--) {
+         for (final String declaredClass : classesDeclaredByTransDeps.get(transDeps.get(i))) {
+            if (unattributedClasses.remove(declaredClass)) {
+               expected.computeIfAbsent(transDeps.get(i), k -> new HashSet<>()).add(declaredClass);
+            }
+         }
+      }
+      assertThat(unattributedClasses).isEmpty();
+
+      for (final boolean demandDriven : new boolean[] {false, true}) {
+         mojo.demandDrivenTransitiveScan = demandDriven;
+         mojo.threads = 1;
+         final DepsAnalyzer.ScanResult sequentialResult = new DepsAnalyzer(mojo, module, null, null).scan(true, true);
+         assertThat(sequentialResult.unusedDirectDependencies).isEmpty();
+         if (!demandDriven) {
+            assertThat(sequentialResult.usedClassesOfTransitiveDependencies).isEqualTo(expected);
+         }
+
+         mojo.threads = 4;
+         try {
+            for (int run = 0; run < 3; run++) {
+               final DepsAnalyzer.ScanResult parallelResult = new DepsAnalyzer(mojo, module, null, null).scan(true, true);
+               assertThat(parallelResult.unusedDirectDependencies).isEmpty();
+               assertThat(parallelResult.usedClassesOfTransitiveDependencies) //
+                  .as("demandDrivenTransitiveScan=" + demandDriven) //
+                  .isEqualTo(sequentialResult.usedClassesOfTransitiveDependencies);
+            }
+         } finally {
+            // stops the worker threads of the shared scheduler
+            mojo.executeAfterEachProject();
+         }
+      }
+   }
+
+   @Test
+   void testIncrementalScanOfOutputDirectory() throws Exception {
+      final CheckDepsMojo mojo = getMojo(getSession("empty-project-with-check-deps"), CheckDepsMojo.MAVEN_GOAL);
+      final var da = new DepsAnalyzer(mojo);
+
+      // use a copy of the class files of this plugin
+      final Path classDirectory = tempDir.resolve("classes");
+      final Path sourceDirectory = Paths.get("target/classes");
+      try (Stream<Path> files = Files.walk(sourceDirectory)) {
+         for (final Path file : (Iterable<Path>) files::iterator) {
+            Files.copy(file, classDirectory.resolve(sourceDirectory.relativize(file).toString()), StandardCopyOption.COPY_ATTRIBUTES);
+         }
+      }
+      final Path cacheFile = tempDir.resolve("class-files.cache");
+      final Supplier<ClassFileCache> newCache = () -> new ClassFileCache(cacheFile, ClassAnalyzerEngine.ASM, "1.0", mojo.getLog());
+
+      final Set<String> declaredClasses = scan(da, classDirectory, null, true);
+      final Set<String> referencedClasses = scan(da, classDirectory, null, false);
+      assertThat(scan(da, classDirectory, newCache.get(), true)).isEqualTo(declaredClasses);
+      assertThat(cacheFile).exists();
+      assertThat(scan(da, classDirectory, newCache.get(), false)).isEqualTo(referencedClasses);
+
+      // the references of unmodified class files are taken from the cache
+      final String symbolTableClass = Type.getInternalName(SymbolTable.class);
+      Files.writeString(cacheFile, Files.readString(cacheFile).replace(" " + symbolTableClass + " ", " " + symbolTableClass
+            + " org/acme/CachedReference "));
+      assertThat(scan(da, classDirectory, newCache.get(), false)).contains("org/acme/CachedReference");
+
+      // a different analyzer invalidates the cache
+      assertThat(scan(da, classDirectory, new ClassFileCache(cacheFile, ClassAnalyzerEngine.CONSTANT_POOL, "1.0", mojo.getLog()), false))
+         .doesNotContain("org/acme/CachedReference");
+
+      // deleted and modified class files are detected
+      final Path deletedClassFile = classDirectory.resolve(symbolTableClass + ".class");
+      final Path modifiedClassFile = classDirectory.resolve(Type.getInternalName(ScanResultStore.class) + ".class");
+      Files.delete(deletedClassFile);
+      final FileTime lastModified = Files.getLastModifiedTime(modifiedClassFile);
+      Files.write(modifiedClassFile, Files.readAllBytes(classDirectory.resolve(Type.getInternalName(ClassFileCache.class) + ".class")));
+      Files.setLastModifiedTime(modifiedClassFile, lastModified);
+      assertThat(scan(da, classDirectory, newCache.get(), true)) //
+         .doesNotContain(symbolTableClass, Type.getInternalName(ScanResultStore.class)) //
+         .isEqualTo(scan(da, classDirectory, null, true));
+      assertThat(scan(da, classDirectory, newCache.get(), false)).isEqualTo(scan(da, classDirectory, null, false));
+   }
+
+   /**
+    * A class file rewritten with the same size and modification time shortly before the cache was written is detected via its checksum.
+    */
+   @Test
+   void testIncrementalScanOfClassFileModifiedWithinTimestampGranularity() throws Exception {
+      final CheckDepsMojo mojo = getMojo(getSession("empty-project-with-check-deps"), CheckDepsMojo.MAVEN_GOAL);
+      final var da = new DepsAnalyzer(mojo);
+      final Path classDirectory = tempDir.resolve("classes");
+      final Path cacheFile = tempDir.resolve("class-files.cache");
+      final Supplier<ClassFileCache> newCache = () -> new ClassFileCache(cacheFile, ClassAnalyzerEngine.ASM, "1.0", mojo.getLog());
+
+      final FileTime lastModified = FileTime.fromMillis(System.currentTimeMillis());
+      final Path classFile = writeClassFile(classDirectory, "org/acme/Foo", "org/acme/Bar1");
+      Files.setLastModifiedTime(classFile, lastModified);
+      assertThat(scan(da, classDirectory, newCache.get(), false)).contains("org/acme/Bar1");
+
+      final long size = Files.size(classFile);
+      writeClassFile(classDirectory, "org/acme/Foo", "org/acme/Bar2");
+      Files.setLastModifiedTime(classFile, lastModified);
+      assertThat(classFile).hasSize(size);
+      assertThat(scan(da, classDirectory, newCache.get(), false)).contains("org/acme/Bar2").doesNotContain("org/acme/Bar1");
+   }
+
+   /**
+    * The entry of a class file with the same size and a modification time well before the cache was written is used without reading
+    * the class file.
+    */
+   @Test
+   void testIncrementalScanTrustsClassFileModifiedBeforeTimestampGranularity() throws Exception {
+      final CheckDepsMojo mojo = getMojo(getSession("empty-project-with-check-deps"), CheckDepsMojo.MAVEN_GOAL);
+      final var da = new DepsAnalyzer(mojo);
+      final Path classDirectory = tempDir.resolve("classes");
+      final Path cacheFile = tempDir.resolve("class-files.cache");
+      final Supplier<ClassFileCache> newCache = () -> new ClassFileCache(cacheFile, ClassAnalyzerEngine.ASM, "1.0", mojo.getLog());
+
+      final FileTime lastModified = FileTime.fromMillis(System.currentTimeMillis() - 60_000);
+      final Path classFile = writeClassFile(classDirectory, "org/acme/Foo", "org/acme/Bar1");
+      Files.setLastModifiedTime(classFile, lastModified);
+      assertThat(scan(da, classDirectory, newCache.get(), false)).contains("org/acme/Bar1");
+
+      // not a realistic modification, but it shows that the stale cache entry is used
+      writeClassFile(classDirectory, "org/acme/Foo", "org/acme/Bar2");
+      Files.setLastModifiedTime(classFile, lastModified);
+      assertThat(scan(da, classDirectory, newCache.get(), false)).contains("org/acme/Bar1").doesNotContain("org/acme/Bar2");
+   }
+
    @Test
    void testIsAnonymousInnerClass() throws Exception {
       final var da = new DepsAnalyzer(getMojo(getSession("empty-project-with-check-deps"), CheckDepsMojo.MAVEN_GOAL));
 
       assertThat(da.isAnonymousInnerClass(null)).isFalse();
       assertThat(da.isAnonymousInnerClass("")).isFalse();
-      assertThat(da.isAnonymousInnerClass("java.lang.Object")).isFalse();
-      assertThat(da.isAnonymousInnerClass("java.lang.Object.Foo")).isFalse();
-      assertThat(da.isAnonymousInnerClass("java.lang.Object.1Foo")).isFalse();
-      assertThat(da.isAnonymousInnerClass("java.lang.Object.1")).isTrue();
+      assertThat(da.isAnonymousInnerClass("java/lang/Object")).isFalse();
+      assertThat(da.isAnonymousInnerClass("java/lang/Object$Foo")).isFalse();
+      assertThat(da.isAnonymousInnerClass("java/lang/Object$1Foo")).isFalse();
+      assertThat(da.isAnonymousInnerClass("java/lang/Object$")).isFalse();
+      assertThat(da.isAnonymousInnerClass("java/lang/Object$1")).isTrue();
+      assertThat(da.isAnonymousInnerClass("java/lang/Object$Foo$12")).isTrue();
    }
 
    @Test
@@ -38,4 +281,65 @@ void testIsArtifactWithClasses() throws Exception {
       assertThat(da.isArtifactWithClasses(new DummyArtifact().withType("ear"))).isFalse();
       assertThat(da.isArtifactWithClasses(new DummyArtifact().withType("pom"))).isFalse();
    }
+
+   @Test
+   void testIsJavaPlatformClass() throws Exception {
+      final var da = new DepsAnalyzer(getMojo(getSession("empty-project-with-check-deps"), CheckDepsMojo.MAVEN_GOAL));
+
+      assertThat(da.isJavaPlatformClass("java/lang/Object")).isTrue();
+      assertThat(da.isJavaPlatformClass("java/util/Map$Entry")).isTrue();
+      assertThat(da.isJavaPlatformClass("javax/xml/parsers/DocumentBuilder")).isTrue();
+      assertThat(da.isJavaPlatformClass("Main")).isFalse();
+      assertThat(da.isJavaPlatformClass("java.lang.Object")).isFalse();
+      assertThat(da.isJavaPlatformClass("org/apache/commons/lang3/StringUtils")).isFalse();
+   }
+
+   @Test
+   void testParallelScanOfOutputDirectory() throws Exception {
+      final CheckDepsMojo mojo = getMojo(getSession("empty-project-with-check-deps"), CheckDepsMojo.MAVEN_GOAL);
+
+      // scan the class files of this plugin
+      final Path classDirectory = Paths.get("target/classes");
+
+      mojo.threads = 1;
+      final var sequentialSymbols = new SymbolTable();
+      final Tuple2<BitSet, BitSet> sequentialResult = new DepsAnalyzer(mojo).scanDirectoryForDeclaredAndReferencedClasses(classDirectory,
+         sequentialSymbols);
+      final Set<String> sequentialDeclared = new HashSet<>(sequentialSymbols.namesOf(sequentialResult.get1()));
+      final Set<String> sequentialReferenced = new HashSet<>(sequentialSymbols.namesOf(sequentialResult.get2()));
+      assertThat(sequentialDeclared).contains(Type.getInternalName(DepsAnalyzer.class));
+      assertThat(sequentialReferenced).contains(Type.getInternalName(ClassReader.class)).doesNotContainAnyElementsOf(sequentialDeclared);
+
+      mojo.threads = 4;
+      try {
+         final var parallelSymbols = new SymbolTable();
+         final Tuple2<BitSet, BitSet> parallelResult = new DepsAnalyzer(mojo).scanDirectoryForDeclaredAndReferencedClasses(classDirectory,
+            parallelSymbols);
+         assertThat(parallelSymbols.namesOf(parallelResult.get1())).containsExactlyInAnyOrderElementsOf(sequentialDeclared);
+         assertThat(parallelSymbols.namesOf(parallelResult.get2())).containsExactlyInAnyOrderElementsOf(sequentialReferenced);
+      } finally {
+         // stops the worker threads of the shared scheduler
+         mojo.executeAfterEachProject();
+      }
+   }
+
+   @Test
+   void testScanReactorProjectForDeclaredClasses() throws Exception {
+      final var da = new DepsAnalyzer(getMojo(getSession("empty-project-with-check-deps"), CheckDepsMojo.MAVEN_GOAL));
+
+      // use the class files of this plugin as output directory of a reactor project
+      final Path classDirectory = Paths.get("target/classes");
+      final var reactorProject = new MavenProject();
+      reactorProject.getBuild().setOutputDirectory(classDirectory.toString());
+
+      final ArtifactClasses declaredClasses = da.scanReactorProjectForDeclaredClasses(reactorProject);
+      final var symbols = new SymbolTable();
+      assertThat(declaredClasses.classes) //
+         .contains(Type.getInternalName(DepsAnalyzer.class), Type.getInternalName(DepsAnalyzer.ScanResult.class)) //
+         .containsExactlyInAnyOrderElementsOf(symbols.namesOf(da.scanDirectoryForDeclaredAndReferencedClasses(classDirectory, symbols)
+            .get1()));
+
+      // the result is memoized in the project's context
+      assertThat(da.scanReactorProjectForDeclaredClasses(reactorProject)).isSameAs(declaredClasses);
+   }
 }
@@ -0,0 +1,219 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.CertificateFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import jdk.security.jarsigner.JarSigner;
+import net.sf.jstuff.core.Strings;
+import net.sf.jstuff.core.collection.Enumerations;
+
+/**
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+class JarClassNamesReaderTest {
+
+   private static final List<String> ENTRIES = List.of( //
+      "META-INF/", //
+      "META-INF/MANIFEST.MF", //
+      "META-INF/versions/9/module-info.class", //
+      "Main.class", //
+      "com/", //
+      "com/acme/", //
+      "com/acme/Foo.class", //
+      "com/acme/Foo$Bar.class", //
+      "com/acme/Foo$1.class", //
+      "com/acme/Foo$Bar$2.class", //
+      "com/acme/Foo$1Local.class", //
+      "com/acme/util/Ünicode.class", //
+      "com/acme/util/messages.properties");
+
+   @TempDir
+   Path tempDir;
+
+   private Path createJar(final String fileName, final byte[] prefix, final Iterable<String> entries) throws IOException {
+      final Path jarFile = tempDir.resolve(fileName);
+      try (OutputStream out = Files.newOutputStream(jarFile)) {
+         out.write(prefix);
+         try (var jar = new JarOutputStream(out)) {
+            for (final String entry : entries) {
+               jar.putNextEntry(new ZipEntry(entry));
+               if (!entry.endsWith("/")) {
+                  jar.write(entry.getBytes(StandardCharsets.UTF_8));
+               }
+               jar.closeEntry();
+            }
+         }
+      }
+      return jarFile;
+   }
+
+   /**
+    * @return the declared classes as determined by {@link JarFile}
+    */
+   private Set<String> readClassNamesWithJarFile(final Path jarFile) throws IOException {
+      final var classNames = new HashSet<String>();
+      try (var jar = new JarFile(jarFile.toFile())) {
+         for (final JarEntry jarEntry : Enumerations.toIterable(jar.entries())) {
+            final String fileName = jarEntry.getName();
+            if (jarEntry.isDirectory() || !fileName.endsWith(".class")) {
+               continue;
+            }
+            final String className = Strings.substringBeforeLast(fileName, ".class");
+            if (!Strings.isNumeric(Strings.substringAfterLast(Strings.replace(className, '$', '/'), "/"))) {
+               classNames.add(className);
+            }
+         }
+      }
+      return classNames;
+   }
+
+   private Path signJar(final Path unsignedJar) throws Exception {
+      final Path keyStoreFile = tempDir.resolve("keystore.p12");
+      final char[] password = "changeit".toCharArray();
+      final Process keytool = new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "keytool").toString(), //
+         "-genkeypair", "-alias", "test", "-keyalg", "RSA", "-keysize", "2048", "-dname", "CN=test", "-validity", "1", //
+         "-storetype", "PKCS12", "-keystore", keyStoreFile.toString(), "-storepass", "changeit", "-keypass", "changeit") //
+            .redirectErrorStream(true) //
+            .start();
+      keytool.getInputStream().transferTo(OutputStream.nullOutputStream());
+      assertThat(keytool.waitFor()).isZero();
+
+      final var keyStore = KeyStore.getInstance("PKCS12");
+      try (var in = Files.newInputStream(keyStoreFile)) {
+         keyStore.load(in, password);
+      }
+      final var signer = new JarSigner.Builder( //
+         (PrivateKey) keyStore.getKey("test", password), //
+         CertificateFactory.getInstance("X.509").generateCertPath(Arrays.asList(keyStore.getCertificateChain("test"))) //
+      ).signerName("TEST").build();
+
+      final Path signedJar = tempDir.resolve("signed.jar");
+      try (var unsigned = new ZipFile(unsignedJar.toFile());
+           OutputStream out = Files.newOutputStream(signedJar)) {
+         signer.sign(unsigned, out);
+      }
+      return signedJar;
+   }
+
+   @Test
+   void testClassNamesMatchScannedClassNames() throws Exception {
+      // the names read from the central directory must use the same encoding as the names reported by the class analyzer
+      final var jarFile = new File(ClassReader.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+      final var scannedClassNames = new HashSet<String>();
+      try (var jar = new JarFile(jarFile)) {
+         final var analyzer = new AbstractClassAnalyzer(Opcodes.ASM9) {
+            @Override
+            protected void onClassName(final String nameOfReferencedClass) {
+               scannedClassNames.add(nameOfReferencedClass);
+            }
+
+            @Override
+            protected void onClassReference(final String nameOfReferencedClass) {
+               // not relevant
+            }
+         };
+         for (final JarEntry jarEntry : Enumerations.toIterable(jar.entries())) {
+            if (jarEntry.getName().endsWith(".class")) {
+               try (var in = jar.getInputStream(jarEntry)) {
+                  analyzer.scan(in);
+               }
+            }
+         }
+      }
+
+      assertThat(scannedClassNames).contains(Type.getInternalName(ClassReader.class), Type.getInternalName(Type.class));
+      assertThat(JarClassNamesReader.readClassNames(jarFile)).containsExactlyInAnyOrderElementsOf(scannedClassNames);
+   }
+
+   @Test
+   void testJarWithPrependedLaunchScript() throws IOException {
+      final Path jarFile = createJar("executable.jar", "#!/bin/sh\nexec java -jar \"$0\" \"$@\"\n".getBytes(StandardCharsets.UTF_8),
+         ENTRIES);
+
+      assertThat(JarClassNamesReader.readClassNames(jarFile.toFile())).isEqualTo(readClassNamesWithJarFile(jarFile));
+   }
+
+   @Test
+   void testReadClassNames() throws IOException {
+      final Path jarFile = createJar("regular.jar", new byte[0], ENTRIES);
+
+      assertThat(JarClassNamesReader.readClassNames(jarFile.toFile())) //
+         .isEqualTo(readClassNamesWithJarFile(jarFile)) //
+         .containsExactlyInAnyOrder( //
+            "META-INF/versions/9/module-info", //
+            "Main", //
+            "com/acme/Foo", //
+            "com/acme/Foo$Bar", //
+            "com/acme/Foo$1Local", //
+            "com/acme/util/Ünicode");
+   }
+
+   @Test
+   void testReadPackages() throws IOException {
+      final Path jarFile = createJar("regular.jar", new byte[0], ENTRIES);
+
+      final ArtifactClasses artifactClasses = JarClassNamesReader.readPackages(jarFile.toFile());
+      assertThat(artifactClasses.isMaterialized()).isFalse();
+      assertThat(artifactClasses.classCount).isEqualTo(6);
+      assertThat(artifactClasses.packages).containsExactlyInAnyOrder("META-INF/versions/9", "", "com/acme", "com/acme/util");
+   }
+
+   @Test
+   void testSignedJar() throws Exception {
+      final Path jarFile = signJar(createJar("unsigned.jar", new byte[0], ENTRIES));
+      try (var jar = new JarFile(jarFile.toFile())) {
+         assertThat(jar.getEntry("META-INF/TEST.SF")).isNotNull();
+      }
+
+      assertThat(JarClassNamesReader.readClassNames(jarFile.toFile())).isEqualTo(readClassNamesWithJarFile(jarFile));
+   }
+
+   @Test
+   void testZip64Jar() throws IOException {
+      // more than 65535 entries require the ZIP64 format
+      final int classCount = 70_000;
+      final var entries = new ArrayList<String>(classCount);
+      for (int i = 0; i < classCount; i++) {
+         entries.add("com/acme/pkg" + i % 100 + "/Class" + i + ".class");
+      }
+      final Path jarFile = createJar("zip64.jar", new byte[0], entries);
+
+      final Set<String> classNames = JarClassNamesReader.readClassNames(jarFile.toFile());
+      assertThat(classNames).hasSize(classCount).contains("com/acme/pkg0/Class0", "com/acme/pkg99/Class69999");
+      assertThat(classNames).isEqualTo(readClassNamesWithJarFile(jarFile));
+
+      final ArtifactClasses artifactClasses = JarClassNamesReader.readPackages(jarFile.toFile());
+      assertThat(artifactClasses.classCount).isEqualTo(classCount);
+      assertThat(artifactClasses.packages).hasSize(100);
+   }
+}
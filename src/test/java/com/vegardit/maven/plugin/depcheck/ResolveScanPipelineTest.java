@@ -0,0 +1,143 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+class ResolveScanPipelineTest {
+
+   private static List<Artifact> newArtifacts(final int count) {
+      final var artifacts = new ArrayList<Artifact>(count);
+      for (int i = 0; i < count; i++) {
+         artifacts.add(new DefaultArtifact("com.acme", "lib" + i, "1.0", Artifact.SCOPE_COMPILE, "jar", null, new DefaultArtifactHandler(
+            "jar")));
+      }
+      return artifacts;
+   }
+
+   private SharedScheduler scheduler;
+
+   @BeforeEach
+   void acquireScheduler() {
+      scheduler = SharedScheduler.acquire(4);
+   }
+
+   /**
+    * @return a queue whose tasks are run by up to the given number of threads including the thread awaiting them
+    */
+   private SharedScheduler.Queue newQueue(final int threads) {
+      return threads < 2 ? null : scheduler.newQueue(threads - 1);
+   }
+
+   @AfterEach
+   void releaseScheduler() {
+      SharedScheduler.release();
+   }
+
+   @Test
+   void testBackpressure() throws Exception {
+      final int threads = 3;
+      final int capacity = 4;
+      final List<Artifact> artifacts = newArtifacts(50);
+
+      final var resolved = new AtomicInteger();
+      final var scanned = new AtomicInteger();
+      final var scanning = new AtomicInteger();
+      final var maxResolvedAhead = new AtomicInteger();
+      final var maxScanning = new AtomicInteger();
+
+      final var pipeline = new ResolveScanPipeline<String>(newQueue(threads), capacity, chunk -> {
+         assertThat(chunk).hasSizeLessThanOrEqualTo(capacity);
+         maxResolvedAhead.accumulateAndGet(resolved.addAndGet(chunk.size()) - scanned.get(), Math::max);
+      }, artifact -> {
+         maxScanning.accumulateAndGet(scanning.incrementAndGet(), Math::max);
+         try {
+            Thread.sleep(2);
+         } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+         }
+         scanning.decrementAndGet();
+         scanned.incrementAndGet();
+         return artifact.getArtifactId();
+      });
+
+      final List<String> results = pipeline.process(artifacts);
+      assertThat(results).hasSize(artifacts.size());
+      for (int i = 0; i < artifacts.size(); i++) {
+         assertThat(results.get(i)).isEqualTo("lib" + i);
+      }
+      assertThat(maxScanning.get()).isLessThanOrEqualTo(threads);
+
+      // at most capacity pending artifacts + the chunk just resolved
+      assertThat(maxResolvedAhead.get()).isLessThanOrEqualTo(2 * capacity);
+   }
+
+   @Test
+   void testFailingResolver() {
+      final List<Artifact> artifacts = newArtifacts(20);
+      final Set<String> scanned = ConcurrentHashMap.newKeySet();
+      final var pipeline = new ResolveScanPipeline<String>(newQueue(4), 2, chunk -> {
+         if (chunk.contains(artifacts.get(10)))
+            throw new MojoExecutionException("Could not resolve artifact: " + artifacts.get(10));
+      }, artifact -> {
+         scanned.add(artifact.getArtifactId());
+         return artifact.getArtifactId();
+      });
+
+      assertThatThrownBy(() -> pipeline.process(artifacts)) //
+         .isInstanceOf(MojoExecutionException.class) //
+         .hasMessageContaining("lib10");
+      assertThat(scanned).doesNotContain("lib10", "lib11", "lib12");
+   }
+
+   @Test
+   void testFailingScanner() {
+      for (final int threads : new int[] {1, 4}) {
+         final var pipeline = new ResolveScanPipeline<String>(newQueue(threads), 2, chunk -> { /* nothing to resolve */ }, artifact -> {
+            if ("lib7".equals(artifact.getArtifactId()))
+               throw new MojoExecutionException("Analyzing dependency " + artifact + " failed");
+            return artifact.getArtifactId();
+         });
+
+         assertThatThrownBy(() -> pipeline.process(newArtifacts(20))) //
+            .isInstanceOf(MojoExecutionException.class) //
+            .hasMessageContaining("lib7");
+      }
+   }
+
+   @Test
+   void testSingleThread() throws Exception {
+      final List<Artifact> artifacts = newArtifacts(10);
+      final var resolveCalls = new AtomicInteger();
+      final var callingThread = Thread.currentThread();
+      final var pipeline = new ResolveScanPipeline<String>(newQueue(1), 2, chunk -> {
+         resolveCalls.incrementAndGet();
+         assertThat(chunk).hasSize(artifacts.size());
+      }, artifact -> {
+         assertThat(Thread.currentThread()).isSameAs(callingThread);
+         return artifact.getArtifactId();
+      });
+
+      assertThat(pipeline.process(artifacts)).hasSize(artifacts.size());
+      assertThat(resolveCalls.get()).isEqualTo(1);
+   }
+}
@@ -0,0 +1,217 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.vegardit.maven.util.AbstractMavenTest;
+
+import net.sf.jstuff.core.logging.Logger;
+
+/**
+ * Runs the analysis on small and large synthetic inputs and fails if the heap allocated by the analysis or the number of parsed class
+ * files, read JAR entries and cache lookups grows considerably faster than the size of the input. The durations are only logged, since
+ * wall times are too noisy on shared build machines to be asserted.
+ *
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+@Timeout(value = 5, unit = TimeUnit.MINUTES)
+class ScalingTest extends AbstractMavenTest {
+
+   private static final Logger LOG = Logger.create();
+
+   /**
+    * factor between the sizes of the small and the large inputs
+    */
+   private static final int SIZE_FACTOR = 8;
+
+   /**
+    * tolerated deviation from linear scaling. Quadratic behavior grows by {@link #SIZE_FACTOR}² = 64 and thus exceeds the tolerated
+    * growth of {@link #SIZE_FACTOR} * 2.5 = 20 by far.
+    */
+   private static final double TOLERANCE = 2.5;
+
+   @FunctionalInterface
+   private interface Workload {
+
+      /**
+       * @return the number of operations, i.e. of parsed class files, read JAR entries and cache lookups
+       */
+      long run() throws Exception;
+   }
+
+   private static final class Measurement {
+      long nanos = Long.MAX_VALUE;
+      long allocatedBytes = Long.MAX_VALUE;
+      long operations;
+   }
+
+   private static void assertScalesLinearly(final String workload, final Measurement small, final Measurement large) {
+      LOG.info("%s of small input: %,d ms, %,d bytes allocated, %,d operations", workload, TimeUnit.NANOSECONDS.toMillis(small.nanos),
+         small.allocatedBytes, small.operations);
+      LOG.info("%s of %dx larger input: %,d ms, %,d bytes allocated, %,d operations", workload, SIZE_FACTOR, TimeUnit.NANOSECONDS.toMillis(
+         large.nanos), large.allocatedBytes, large.operations);
+
+      assertThat(small.operations).as(workload + " operations").isPositive();
+      assertThat(large.operations).as(workload + " operations").isLessThanOrEqualTo((long) (small.operations * SIZE_FACTOR * TOLERANCE));
+      assertThat(large.allocatedBytes).as(workload + " allocated bytes").isLessThanOrEqualTo((long) (small.allocatedBytes * SIZE_FACTOR
+            * TOLERANCE));
+   }
+
+   /**
+    * Runs the given workload once for warm-up and then three times.
+    *
+    * @return the minimum time and allocated bytes of the measured runs and the operations of the last run
+    */
+   private static Measurement measure(final Workload workload) throws Exception {
+      workload.run();
+
+      final var measurement = new Measurement();
+      for (int i = 0; i < 3; i++) {
+         final long allocatedBefore = AllocationCounter.getAllocatedBytes();
+         final long start = System.nanoTime();
+         measurement.operations = workload.run();
+         measurement.nanos = Math.min(measurement.nanos, System.nanoTime() - start);
+         measurement.allocatedBytes = Math.min(measurement.allocatedBytes, AllocationCounter.getAllocatedBytes() - allocatedBefore);
+      }
+      return measurement;
+   }
+
+   @TempDir
+   Path tempDir;
+
+   /**
+    * Analyzes a reactor of the given number of modules with 250 classes each. Every module directly depends on the previous module, on
+    * one used and one unused library and transitively on one used and one unused library. The libraries declare 10,000 classes each.
+    */
+   private Workload analyzeReactor(final String name, final int moduleCount) throws Exception {
+      final Path baseDir = tempDir.resolve(name);
+      final var libs = new ArrayList<Artifact>();
+      final var libClasses = new ArrayList<List<String>>();
+      for (int i = 0; i < 4; i++) {
+         final List<String> classNames = SyntheticCorpus.classNames("org/synthetic/lib" + i, 10_000);
+         libClasses.add(classNames);
+         libs.add(SyntheticCorpus.newArtifact("org.synthetic", "lib" + i, SyntheticCorpus.writeJar(baseDir.resolve("lib" + i + ".jar"),
+            classNames)));
+      }
+      final Artifact usedDirectLib = libs.get(0);
+      final Artifact unusedDirectLib = libs.get(1);
+      final Artifact usedTransLib = libs.get(2);
+      final Artifact unusedTransLib = libs.get(3);
+
+      final var modules = new ArrayList<MavenProject>();
+      List<String> classesOfPreviousModule = null;
+      for (int i = 0; i < moduleCount; i++) {
+         final MavenProject module = SyntheticCorpus.newModule(baseDir.resolve("module" + i), "com.synthetic", "module" + i);
+         final List<String> classNames = SyntheticCorpus.classNames("com/synthetic/module" + i, 250);
+
+         final var externalClasses = new ArrayList<String>(libClasses.get(0).subList(0, 500));
+         externalClasses.addAll(libClasses.get(2).subList(0, 50));
+         final var directDeps = new ArrayList<Artifact>(List.of(usedDirectLib, unusedDirectLib));
+         if (classesOfPreviousModule != null) {
+            externalClasses.addAll(classesOfPreviousModule.subList(0, 100));
+            directDeps.add(modules.get(i - 1).getArtifact());
+         }
+         SyntheticCorpus.writeClassFiles(Path.of(module.getBuild().getOutputDirectory()), classNames, 10, externalClasses);
+         SyntheticCorpus.setDependencies(module, directDeps, List.of(usedTransLib, unusedTransLib));
+         modules.add(module);
+         classesOfPreviousModule = classNames;
+      }
+
+      final MavenSession session = getSession("synthetic-corpus");
+      session.setProjects(modules);
+      final CheckDepsMojo mojo = getMojo(session, CheckDepsMojo.MAVEN_GOAL);
+
+      return () -> {
+         final var reactorArtifactIndex = new ReactorArtifactIndex();
+         long operations = 0;
+         for (final MavenProject module : modules) {
+            final var analyzer = new DepsAnalyzer(mojo, module, reactorArtifactIndex, null);
+            final DepsAnalyzer.ScanResult result = analyzer.scan(true, true);
+            assertThat(result.unusedDirectDependencies).containsExactly(unusedDirectLib);
+            assertThat(result.usedClassesOfTransitiveDependencies).containsOnlyKeys(usedTransLib);
+            final ScanMetrics.Counters counters = analyzer.getMetrics().getTotal();
+            operations += counters.classFilesParsed.sum() + counters.jarEntriesRead.sum();
+            operations += counters.cacheHits.sum() + counters.cacheMisses.sum();
+         }
+         return operations;
+      };
+   }
+
+   @BeforeEach
+   void assumeAllocationCounterSupported() {
+      assumeTrue(AllocationCounter.isSupported());
+   }
+
+   /**
+    * Enumerates the classes of a JAR with the given number of entries.
+    */
+   private Workload readJar(final int classCount) throws Exception {
+      final Path jarFile = SyntheticCorpus.writeJar(tempDir.resolve("lib-" + classCount + ".jar"), SyntheticCorpus.classNames(
+         "org/synthetic/lib", classCount));
+      return () -> {
+         final var counters = new ScanMetrics.Counters();
+         assertThat(JarClassNamesReader.readPackages(jarFile.toFile(), counters).classCount).isEqualTo(classCount);
+         assertThat(JarClassNamesReader.readClassNames(jarFile.toFile(), counters)).hasSize(classCount);
+         return counters.jarEntriesRead.sum();
+      };
+   }
+
+   /**
+    * Scans an output directory with the given number of class files referencing 20 classes each.
+    */
+   private Workload scanOutputDirectory(final int classCount) throws Exception {
+      final Path outputDir = tempDir.resolve("classes-" + classCount);
+      final List<String> externalClasses = SyntheticCorpus.classNames("org/synthetic/lib", 1_000);
+      SyntheticCorpus.writeClassFiles(outputDir, SyntheticCorpus.classNames("com/synthetic", classCount), 20, externalClasses);
+
+      final var analyzer = new DepsAnalyzer(getMojo(getSession("synthetic-corpus"), CheckDepsMojo.MAVEN_GOAL));
+      final ScanMetrics.Counters counters = analyzer.getMetrics().get(ScanMetrics.Phase.OUTPUT_DIRECTORY_SCAN);
+      return () -> {
+         final long classFilesParsedBefore = counters.classFilesParsed.sum();
+         final var symbols = new SymbolTable();
+         final var result = analyzer.scanDirectoryForDeclaredAndReferencedClasses(outputDir, symbols, null);
+         assertThat(result.get1().cardinality()).isEqualTo(classCount);
+         // the external classes and the super class java/lang/Object
+         assertThat(result.get2().cardinality()).isEqualTo(externalClasses.size() + 1);
+         return counters.classFilesParsed.sum() - classFilesParsedBefore;
+      };
+   }
+
+   @Test
+   void testJarEnumerationScalesLinearly() throws Exception {
+      final Measurement small = measure(readJar(5_000));
+      final Measurement large = measure(readJar(5_000 * SIZE_FACTOR));
+      assertScalesLinearly("JAR enumeration", small, large);
+   }
+
+   @Test
+   void testOutputDirectoryScanScalesLinearly() throws Exception {
+      final Measurement small = measure(scanOutputDirectory(500));
+      final Measurement large = measure(scanOutputDirectory(500 * SIZE_FACTOR));
+      assertScalesLinearly("Output directory scan", small, large);
+   }
+
+   @Test
+   void testReactorAnalysisScalesLinearly() throws Exception {
+      final Measurement small = measure(analyzeReactor("small-reactor", 1));
+      final Measurement large = measure(analyzeReactor("large-reactor", SIZE_FACTOR));
+      assertScalesLinearly("Reactor analysis", small, large);
+   }
+}
@@ -0,0 +1,86 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+class SharedSchedulerTest {
+
+   @Test
+   void testRoundRobin() throws Exception {
+      final SharedScheduler scheduler = SharedScheduler.acquire(1);
+      try {
+         assertThat(scheduler.getThreads()).isEqualTo(1);
+
+         final SharedScheduler.Queue queueA = scheduler.newQueue(1);
+         final SharedScheduler.Queue queueB = scheduler.newQueue(1);
+         final List<String> executed = new CopyOnWriteArrayList<>();
+         final var started = new CountDownLatch(1);
+         final var proceed = new CountDownLatch(1);
+
+         // occupy the only worker thread until all tasks are submitted
+         final Future<?> blocker = queueA.submit(() -> {
+            started.countDown();
+            proceed.await();
+            return null;
+         });
+         started.await();
+
+         final var futures = new ArrayList<Future<?>>();
+         for (final String task : new String[] {"a1", "a2", "a3", "a4"}) {
+            futures.add(queueA.submit(() -> executed.add(task)));
+         }
+         for (final String task : new String[] {"b1", "b2"}) {
+            futures.add(queueB.submit(() -> executed.add(task)));
+         }
+         proceed.countDown();
+
+         blocker.get();
+         for (final Future<?> future : futures) {
+            future.get();
+         }
+
+         // the module with fewer tasks is not delayed until all tasks of the other module completed
+         assertThat(executed).containsExactly("b1", "a1", "b2", "a2", "a3", "a4");
+      } finally {
+         SharedScheduler.release();
+      }
+   }
+
+   @Test
+   void testShutdownAfterLastRelease() throws Exception {
+      final SharedScheduler scheduler = SharedScheduler.acquire(2);
+      assertThat(SharedScheduler.acquire(2)).isSameAs(scheduler);
+
+      SharedScheduler.release();
+      assertThat(SharedScheduler.acquire(2)).isSameAs(scheduler);
+      SharedScheduler.release();
+      SharedScheduler.release();
+      assertThat(SharedScheduler.isRunning()).isFalse();
+
+      // tasks submitted after the shutdown are run by the thread awaiting them
+      final SharedScheduler.Queue queue = scheduler.newQueue(2);
+      final Future<Thread> future = queue.submit(Thread::currentThread);
+      assertThat(queue.await(future)).isSameAs(Thread.currentThread());
+
+      final SharedScheduler newScheduler = SharedScheduler.acquire(2);
+      try {
+         assertThat(newScheduler).isNotSameAs(scheduler);
+      } finally {
+         SharedScheduler.release();
+      }
+   }
+}
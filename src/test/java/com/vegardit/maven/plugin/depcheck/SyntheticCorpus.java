@@ -0,0 +1,149 @@
+/*
+ * SPDX-FileCopyrightText: © Vegard IT GmbH (https://vegardit.com)
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package com.vegardit.maven.plugin.depcheck;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.project.MavenProject;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Generates large synthetic inputs for the analysis offline, i.e. class files with a configurable number of class references,
+ * dependency JARs with many entries and multi-module reactors.
+ *
+ * @author Sebastian Thomschke, Vegard IT GmbH
+ */
+abstract class SyntheticCorpus {
+
+   static final String VERSION = "1.0";
+
+   /**
+    * @param packageName internal package name, e.g. <code>org/acme</code>
+    * @return the internal names of the given number of classes distributed over sub-packages of 100 classes each
+    */
+   static List<String> classNames(final String packageName, final int classCount) {
+      final var classNames = new ArrayList<String>(classCount);
+      for (int i = 0; i < classCount; i++) {
+         classNames.add(packageName + "/p" + i / 100 + "/C" + i);
+      }
+      return classNames;
+   }
+
+   /**
+    * @return a resolved JAR artifact
+    */
+   static Artifact newArtifact(final String groupId, final String artifactId, final Path jarFile) {
+      final var artifact = new DefaultArtifact(groupId, artifactId, VERSION, Artifact.SCOPE_COMPILE, "jar", null,
+         new DefaultArtifactHandler("jar"));
+      if (jarFile != null) {
+         artifact.setFile(jarFile.toFile());
+         artifact.setResolved(true);
+      }
+      return artifact;
+   }
+
+   /**
+    * @return a reactor module whose build directory is <code>target</code> inside the given directory
+    */
+   static MavenProject newModule(final Path moduleDir, final String groupId, final String artifactId) {
+      final var module = new MavenProject();
+      module.setGroupId(groupId);
+      module.setArtifactId(artifactId);
+      module.setVersion(VERSION);
+      module.setArtifact(newArtifact(groupId, artifactId, null));
+      module.setFile(moduleDir.resolve("pom.xml").toFile());
+      module.getBuild().setDirectory(moduleDir.resolve("target").toString());
+      module.getBuild().setOutputDirectory(moduleDir.resolve("target/classes").toString());
+      return module;
+   }
+
+   /**
+    * Sets the dependencies of the given module as Maven would after resolving them.
+    */
+   static void setDependencies(final MavenProject module, final Collection<Artifact> directDeps, final Collection<Artifact> transDeps) {
+      final var artifacts = new LinkedHashSet<Artifact>();
+      for (final Artifact directDep : directDeps) {
+         final var dependency = new Dependency();
+         dependency.setGroupId(directDep.getGroupId());
+         dependency.setArtifactId(directDep.getArtifactId());
+         dependency.setVersion(directDep.getVersion());
+         dependency.setType(directDep.getType());
+         dependency.setScope(directDep.getScope());
+         module.getModel().addDependency(dependency);
+         artifacts.add(directDep);
+      }
+      artifacts.addAll(transDeps);
+      module.setArtifacts(artifacts);
+   }
+
+   /**
+    * Writes the class files of the given classes. Each class declares <code>fanOut</code> fields and calls a static method of the
+    * type of each field. Every second reference points to another class of the given classes, the others point to the given external
+    * classes in round-robin order.
+    */
+   static void writeClassFiles(final Path outputDir, final List<String> classNames, final int fanOut, final List<String> externalClasses)
+         throws IOException {
+      int nextExternalClass = 0;
+      for (int i = 0; i < classNames.size(); i++) {
+         final String className = classNames.get(i);
+         final var classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+         classWriter.visit(Opcodes.V11, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, className, null, "java/lang/Object", null);
+         final MethodVisitor method = classWriter.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "run", "()V", null, null);
+         method.visitCode();
+         for (int ref = 0; ref < fanOut; ref++) {
+            final String referencedClass = ref % 2 == 0 || externalClasses.isEmpty() //
+                  ? classNames.get((i + ref + 1) % classNames.size())
+                  : externalClasses.get(nextExternalClass++ % externalClasses.size());
+            classWriter.visitField(Opcodes.ACC_PRIVATE, "field" + ref, "L" + referencedClass + ";", null, null).visitEnd();
+            method.visitMethodInsn(Opcodes.INVOKESTATIC, referencedClass, "run", "()V", false);
+         }
+         method.visitInsn(Opcodes.RETURN);
+         method.visitMaxs(0, 0);
+         method.visitEnd();
+         classWriter.visitEnd();
+
+         final Path classFile = outputDir.resolve(className + ".class");
+         Files.createDirectories(classFile.getParent());
+         Files.write(classFile, classWriter.toByteArray());
+      }
+   }
+
+   /**
+    * Writes a JAR declaring the given classes. The entries only contain their name since the analysis only reads the central directory
+    * of dependency JARs.
+    */
+   static Path writeJar(final Path jarFile, final List<String> classNames) throws IOException {
+      Files.createDirectories(jarFile.getParent());
+      try (var jar = new JarOutputStream(new BufferedOutputStream(Files.newOutputStream(jarFile)))) {
+         jar.putNextEntry(new ZipEntry(JarFile.MANIFEST_NAME));
+         jar.write("Manifest-Version: 1.0\r\n".getBytes(StandardCharsets.UTF_8));
+         jar.closeEntry();
+         for (final String className : classNames) {
+            final String entry = className + ".class";
+            jar.putNextEntry(new ZipEntry(entry));
+            jar.write(entry.getBytes(StandardCharsets.UTF_8));
+            jar.closeEntry();
+         }
+      }
+      return jarFile;
+   }
+}
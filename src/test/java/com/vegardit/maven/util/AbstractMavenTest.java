@@ -16,6 +16,9 @@
 import org.apache.maven.plugin.Mojo;
 import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.repository.LocalRepository;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.jupiter.api.extension.RegisterExtension;
@@ -68,6 +71,11 @@ protected MavenSession getSession(final String testProjectName) throws Exception
 
       // to prevent NPE: https://stackoverflow.com/questions/42216442/maven-plugin-testing-harness-session-getlocalrepository-returns-null
       session.getRequest().setLocalRepository(createLocalArtifactRepository());
+
+      // let the repository session used for resolving artifacts use the same local repository
+      final var repoSession = (DefaultRepositorySystemSession) session.getRepositorySession();
+      repoSession.setLocalRepositoryManager(maven.lookup(RepositorySystem.class).newLocalRepositoryManager(repoSession, new LocalRepository(
+         "target/local-repo")));
       return session;
    }
 